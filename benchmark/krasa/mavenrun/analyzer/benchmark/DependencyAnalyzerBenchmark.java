@@ -0,0 +1,202 @@
+package krasa.mavenrun.analyzer.benchmark;
+
+import java.io.*;
+import java.util.*;
+
+import krasa.mavenrun.analyzer.DependencyAnalyzer;
+
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+/**
+ * Headless benchmark of {@link DependencyAnalyzer} on generated trees of 1k, 10k and 100k nodes. Lives in the
+ * benchmark test source root, which is not packaged into the plugin. Run the main method with the plugin classpath
+ * (the IDE's lib and the Maven plugin jars), e.g.
+ *
+ * <pre>
+ * DependencyAnalyzerBenchmark --depth 6 --sharing 0.3 --save benchmark/baseline.properties
+ * DependencyAnalyzerBenchmark --baseline benchmark/baseline.properties
+ * </pre>
+ *
+ * Every iteration repeats the operation for {@link #ITERATION_MILLIS}, the reported score is the mean time per
+ * operation of the measured iterations. <code>--save</code> records the scores, <code>--baseline</code> compares with
+ * them.
+ *
+ * @author Vojtech Krasa
+ */
+public class DependencyAnalyzerBenchmark {
+	private static final int ITERATION_MILLIS = 200;
+	private static final String SEARCH = "lib-4";
+
+	/** keeps results alive so that the JIT does not eliminate the benchmarked code */
+	public static volatile Object sink;
+
+	private int[] sizes = { 1000, 10000, 100000 };
+	private int depth = 6;
+	private double sharing = 0.3;
+	private int warmupIterations = 5;
+	private int iterations = 10;
+	private File baseline;
+	private File save;
+
+	public static void main(String[] args) throws IOException {
+		DependencyAnalyzerBenchmark benchmark = new DependencyAnalyzerBenchmark();
+		benchmark.parse(args);
+		benchmark.run();
+	}
+
+	private void parse(String[] args) {
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			String value = args[i + 1];
+			if ("--sizes".equals(args[i])) {
+				String[] split = value.split(",");
+				sizes = new int[split.length];
+				for (int j = 0; j < split.length; j++) {
+					sizes[j] = Integer.parseInt(split[j].trim());
+				}
+			} else if ("--depth".equals(args[i])) {
+				depth = Integer.parseInt(value);
+			} else if ("--sharing".equals(args[i])) {
+				sharing = Double.parseDouble(value);
+			} else if ("--warmup".equals(args[i])) {
+				warmupIterations = Integer.parseInt(value);
+			} else if ("--iterations".equals(args[i])) {
+				iterations = Integer.parseInt(value);
+			} else if ("--baseline".equals(args[i])) {
+				baseline = new File(value);
+			} else if ("--save".equals(args[i])) {
+				save = new File(value);
+			} else {
+				throw new IllegalArgumentException("Unknown option " + args[i]);
+			}
+		}
+	}
+
+	private void run() throws IOException {
+		Properties baselineScores = new Properties();
+		if (baseline != null) {
+			InputStream in = new FileInputStream(baseline);
+			try {
+				baselineScores.load(in);
+			} finally {
+				in.close();
+			}
+		}
+		Properties scores = new Properties();
+		System.out.println(String.format("depth=%d sharing=%.2f warmup=%d iterations=%d java=%s", depth, sharing,
+				warmupIterations, iterations, System.getProperty("java.version")));
+		System.out.println(String.format("%-40s %12s %12s", "Benchmark", "us/op", "baseline"));
+		for (int size : sizes) {
+			for (Operation operation : operations(size)) {
+				String name = operation.name + "@" + size;
+				double score = measure(operation);
+				scores.setProperty(name, String.format(Locale.ENGLISH, "%.3f", score));
+				String base = baselineScores.getProperty(name);
+				String comparison = "";
+				if (base != null) {
+					double baseScore = Double.parseDouble(base);
+					comparison = String.format("%+.1f%%", (score - baseScore) / baseScore * 100);
+				}
+				System.out.println(String.format("%-40s %12.3f %12s", name, score, comparison));
+			}
+		}
+		if (save != null) {
+			OutputStream out = new FileOutputStream(save);
+			try {
+				scores.store(out, String.format(Locale.ENGLISH, "DependencyAnalyzerBenchmark depth=%d sharing=%.2f",
+						depth, sharing));
+			} finally {
+				out.close();
+			}
+		}
+	}
+
+	private List<Operation> operations(int size) {
+		final List<MavenArtifactNode> tree = new DependencyGraphGenerator(size, depth, sharing, size).generate();
+		final Map<String, List<MavenArtifactNode>> allArtifactsMap = DependencyAnalyzer.createAllArtifactsMap(tree);
+		final Map<String, List<MavenArtifactNode>> conflicts = DependencyAnalyzer.getConflicts(allArtifactsMap);
+
+		List<Operation> operations = new ArrayList<Operation>();
+		operations.add(new Operation("createAllArtifactsMap") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.createAllArtifactsMap(tree);
+			}
+		});
+		operations.add(new Operation("getConflicts") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.getConflicts(allArtifactsMap);
+			}
+		});
+		operations.add(new Operation("sortByVersion") {
+			@Override
+			Object run() {
+				String last = null;
+				for (List<MavenArtifactNode> nodes : conflicts.values()) {
+					last = DependencyAnalyzer.sortByVersion(new ArrayList<MavenArtifactNode>(nodes));
+				}
+				return last;
+			}
+		});
+		operations.add(new Operation("filter") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.filter(allArtifactsMap, SEARCH, false);
+			}
+		});
+		operations.add(new Operation("filterConflicts") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.filter(allArtifactsMap, SEARCH, true);
+			}
+		});
+		operations.add(new Operation("buildTree") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.buildTree(tree, null);
+			}
+		});
+		operations.add(new Operation("buildTreeSearch") {
+			@Override
+			Object run() {
+				return DependencyAnalyzer.buildTree(tree, SEARCH);
+			}
+		});
+		return operations;
+	}
+
+	/** @return mean microseconds per operation */
+	private double measure(Operation operation) {
+		for (int i = 0; i < warmupIterations; i++) {
+			iteration(operation);
+		}
+		double total = 0;
+		for (int i = 0; i < iterations; i++) {
+			total += iteration(operation);
+		}
+		return total / iterations;
+	}
+
+	private double iteration(Operation operation) {
+		long start = System.nanoTime();
+		long deadline = start + ITERATION_MILLIS * 1000000L;
+		long count = 0;
+		long now;
+		do {
+			sink = operation.run();
+			count++;
+			now = System.nanoTime();
+		} while (now < deadline);
+		return (now - start) / 1000.0 / count;
+	}
+
+	private abstract static class Operation {
+		private final String name;
+
+		Operation(String name) {
+			this.name = name;
+		}
+
+		abstract Object run();
+	}
+}
@@ -0,0 +1,88 @@
+package krasa.mavenrun.analyzer.benchmark;
+
+import java.io.File;
+import java.util.*;
+
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.model.MavenArtifactState;
+
+/**
+ * Synthetic, reproducible dependency trees shaped like the ones {@link org.jetbrains.idea.maven.project.MavenProject}
+ * resolves: breadth-first, every node up to <code>depth</code> gets the same number of children.
+ *
+ * @author Vojtech Krasa
+ */
+public class DependencyGraphGenerator {
+	private static final int VERSIONS = 3;
+
+	private final int nodes;
+	private final int depth;
+	private final double sharing;
+	private final long seed;
+
+	/**
+	 * @param nodes total number of nodes
+	 * @param depth levels of the tree
+	 * @param sharing 0..1, probability that a node is an already used artifact, possibly in another version
+	 */
+	public DependencyGraphGenerator(int nodes, int depth, double sharing, long seed) {
+		this.nodes = nodes;
+		this.depth = depth;
+		this.sharing = sharing;
+		this.seed = seed;
+	}
+
+	public List<MavenArtifactNode> generate() {
+		Random random = new Random(seed);
+		int fanOut = Math.max(2, (int) Math.ceil(Math.pow(nodes, 1.0 / depth)));
+		List<String> artifactIds = new ArrayList<String>();
+		Map<MavenArtifactNode, List<MavenArtifactNode>> children = new LinkedHashMap<MavenArtifactNode, List<MavenArtifactNode>>();
+		List<MavenArtifactNode> roots = new ArrayList<MavenArtifactNode>();
+
+		LinkedList<MavenArtifactNode> queue = new LinkedList<MavenArtifactNode>();
+		Map<MavenArtifactNode, Integer> levels = new HashMap<MavenArtifactNode, Integer>();
+		int created = 0;
+		for (int i = 0; i < fanOut && created < nodes; i++, created++) {
+			MavenArtifactNode root = createNode(null, random, artifactIds);
+			roots.add(root);
+			levels.put(root, 1);
+			queue.add(root);
+		}
+		while (!queue.isEmpty() && created < nodes) {
+			MavenArtifactNode parent = queue.removeFirst();
+			int level = levels.get(parent);
+			if (level >= depth) {
+				continue;
+			}
+			List<MavenArtifactNode> list = new ArrayList<MavenArtifactNode>(fanOut);
+			children.put(parent, list);
+			for (int i = 0; i < fanOut && created < nodes; i++, created++) {
+				MavenArtifactNode child = createNode(parent, random, artifactIds);
+				list.add(child);
+				levels.put(child, level + 1);
+				queue.add(child);
+			}
+		}
+		for (MavenArtifactNode node : levels.keySet()) {
+			List<MavenArtifactNode> list = children.get(node);
+			node.setDependencies(list == null ? Collections.<MavenArtifactNode> emptyList() : list);
+		}
+		return roots;
+	}
+
+	private MavenArtifactNode createNode(MavenArtifactNode parent, Random random, List<String> artifactIds) {
+		String artifactId;
+		if (!artifactIds.isEmpty() && random.nextDouble() < sharing) {
+			artifactId = artifactIds.get(random.nextInt(artifactIds.size()));
+		} else {
+			artifactId = "lib-" + artifactIds.size();
+			artifactIds.add(artifactId);
+		}
+		String groupId = "org.example.group" + (artifactId.hashCode() & 15);
+		String version = "1." + random.nextInt(VERSIONS) + "." + random.nextInt(10);
+		MavenArtifact artifact = new MavenArtifact(groupId, artifactId, version, version, "jar", null, "compile",
+				false, "jar", null, new File("repository"), true, false);
+		return new MavenArtifactNode(parent, artifact, MavenArtifactState.ADDED, null, "compile", null, null);
+	}
+}
@@ -1,22 +1,13 @@
 package krasa.mavenrun;
 
-import javax.swing.*;
-
-import krasa.mavenrun.action.MainMavenActionGroup;
 import krasa.mavenrun.action.RunGoalAction;
-import krasa.mavenrun.action.RunTestFileAction;
-import krasa.mavenrun.action.debug.Debug;
 import krasa.mavenrun.action.debug.DebugGoalAction;
-import krasa.mavenrun.action.debug.DebugTestFileAction;
-import krasa.mavenrun.action.debug.MainMavenDebugActionGroup;
 import krasa.mavenrun.gui.ApplicationSettingsForm;
 import krasa.mavenrun.model.ApplicationSettings;
 import krasa.mavenrun.model.Goal;
 
-import org.apache.commons.lang.WordUtils;
 import org.jetbrains.annotations.Nls;
 import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
 import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.application.ApplicationManager;
@@ -34,26 +25,24 @@ public class ApplicationComponent implements com.intellij.openapi.components.App
 		PersistentStateComponent<ApplicationSettings> {
 	static final Logger LOG = Logger.getInstance(ApplicationComponent.class);
 
-	public static final String RUN_MAVEN = "Run Maven";
-	public static final String DEBUG_MAVEN = "Debug Maven";
 	private ApplicationSettings settings = ApplicationSettings.defaultApplicationSettings();
+	private volatile long settingsModificationCount;
 
 	public void initComponent() {
-		addActionGroup(new MainMavenDebugActionGroup(DEBUG_MAVEN, Debug.ICON), RUN_MAVEN);
-		addActionGroup(new MainMavenActionGroup(RUN_MAVEN, MavenIcons.Phase), RUN_MAVEN);
+		long start = System.nanoTime();
 		registerActions();
+		LOG.info("Maven Helper actions registered in " + (System.nanoTime() - start) / 1000 + " us");
 	}
 
+	/**
+	 * Popup groups and test file actions are declared in plugin.xml, only configured goals are registered here so that
+	 * keymaps can bind them. Goal actions only parse the command line when created.
+	 */
 	public void registerActions() {
 		ActionManager instance = ActionManager.getInstance();
 		for (Goal goal : settings.getAllGoals()) {
-			String actionId = getActionId(goal);
-			registerAction(instance, actionId, new RunGoalAction(goal, MavenIcons.PluginGoal));
-			actionId = getDebugActionId(goal);
-			registerAction(instance, actionId, new DebugGoalAction(goal, MavenIcons.PluginGoal));
+			registerGoalActions(instance, goal);
 		}
-		registerAction(instance, "krasa.MavenHelper.RunTestFileAction", new RunTestFileAction());
-		registerAction(instance, "krasa.MavenHelper.DebugTestFileAction", new DebugTestFileAction());
 	}
 
 	public void unRegisterActions() {
@@ -64,9 +53,13 @@ public class ApplicationComponent implements com.intellij.openapi.components.App
 		}
 	}
 
-	public void registerAction(Goal o, RunGoalAction runGoalAction) {
-		ActionManager instance = ActionManager.getInstance();
-		registerAction(instance, getActionId(o), runGoalAction);
+	public void registerGoalActions(Goal goal) {
+		registerGoalActions(ActionManager.getInstance(), goal);
+	}
+
+	private void registerGoalActions(ActionManager instance, Goal goal) {
+		registerAction(instance, getActionId(goal), new RunGoalAction(goal, MavenIcons.PluginGoal));
+		registerAction(instance, getDebugActionId(goal), new DebugGoalAction(goal, MavenIcons.PluginGoal));
 	}
 
 	private void registerAction(ActionManager instance, String actionId1, AnAction runGoalAction) {
@@ -79,43 +72,36 @@ public class ApplicationComponent implements com.intellij.openapi.components.App
 	}
 
 	private String getActionId(Goal goal) {
-		return "MavenRunHelper" + WordUtils.capitalizeFully(goal.getCommandLine()).replaceAll(" ", "");
+		return "MavenRunHelper" + toActionIdSuffix(goal.getCommandLine());
 	}
 
 	private String getDebugActionId(Goal goal) {
-		return "MavenRunHelperDebug" + WordUtils.capitalizeFully(goal.getCommandLine()).replaceAll(" ", "");
-
-	}
-
-	private void addActionGroup(ActionGroup actionGroup, String runMaven) {
-		DefaultActionGroup editorPopupMenu = (DefaultActionGroup) ActionManager.getInstance().getAction(
-				"EditorPopupMenu.Run");
-		DefaultActionGroup projectViewPopupMenuRunGroup = (DefaultActionGroup) ActionManager.getInstance().getAction(
-				"ProjectViewPopupMenuRunGroup");
-		clear(editorPopupMenu, projectViewPopupMenuRunGroup, runMaven);
-
-		add(actionGroup, editorPopupMenu, projectViewPopupMenuRunGroup);
-	}
-
-	private void add(ActionGroup actionGroup, DefaultActionGroup editorPopupMenu,
-			DefaultActionGroup projectViewPopupMenuRunGroup) {
-		editorPopupMenu.add(actionGroup, Constraints.FIRST);
-		projectViewPopupMenuRunGroup.add(actionGroup, Constraints.FIRST);
-	}
-
-	private void clear(DefaultActionGroup editorPopupMenu, DefaultActionGroup projectViewPopupMenuRunGroup,
-			String runMaven) {
-		clear(editorPopupMenu, RUN_MAVEN);
-		clear(projectViewPopupMenuRunGroup, runMaven);
-	}
-
-	private void clear(DefaultActionGroup editorPopupMenu, String runMaven) {
-		AnAction[] childActionsOrStubs = editorPopupMenu.getChildActionsOrStubs();
-		for (AnAction childActionsOrStub : childActionsOrStubs) {
-			if (runMaven.equals(childActionsOrStub.getTemplatePresentation().getText())) {
-				editorPopupMenu.remove(childActionsOrStub);
+		return "MavenRunHelperDebug" + toActionIdSuffix(goal.getCommandLine());
+	}
+
+	/**
+	 * Same as {@code WordUtils.capitalizeFully(commandLine).replaceAll(" ", "")}, which ids of existing keymaps are
+	 * based on, without the regex.
+	 */
+	static String toActionIdSuffix(String commandLine) {
+		String lowerCase = commandLine.toLowerCase();
+		StringBuilder sb = new StringBuilder(lowerCase.length());
+		boolean capitalizeNext = true;
+		for (int i = 0; i < lowerCase.length(); i++) {
+			char c = lowerCase.charAt(i);
+			if (Character.isWhitespace(c)) {
+				capitalizeNext = true;
+				if (c != ' ') {
+					sb.append(c);
+				}
+			} else if (capitalizeNext) {
+				sb.append(Character.toTitleCase(c));
+				capitalizeNext = false;
+			} else {
+				sb.append(c);
 			}
 		}
+		return sb.toString();
 	}
 
 	public void disposeComponent() {
@@ -142,6 +128,15 @@ public class ApplicationComponent implements com.intellij.openapi.components.App
 		} else {
 			settings = state;
 		}
+		settingsModified();
+	}
+
+	public void settingsModified() {
+		settingsModificationCount++;
+	}
+
+	public long getSettingsModificationCount() {
+		return settingsModificationCount;
 	}
 
 
@@ -0,0 +1,19 @@
+package krasa.mavenrun;
+
+import static org.junit.Assert.assertEquals;
+
+import org.apache.commons.lang.WordUtils;
+import org.junit.Test;
+
+public class ApplicationComponentTest {
+
+	@Test
+	public void testToActionIdSuffix() throws Exception {
+		String[] commandLines = { "clean install", "  clean   INSTALL -DskipTests ", "jetty:run",
+				"dependency:tree\t-Dverbose", "", "-U clean verify -Pci,!slow" };
+		for (String commandLine : commandLines) {
+			assertEquals(WordUtils.capitalizeFully(commandLine).replaceAll(" ", ""),
+					ApplicationComponent.toActionIdSuffix(commandLine));
+		}
+	}
+}
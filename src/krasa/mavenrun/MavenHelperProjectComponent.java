@@ -0,0 +1,175 @@
+package krasa.mavenrun;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import krasa.mavenrun.action.ActionsCache;
+import krasa.mavenrun.action.PluginGoalsIndex;
+import krasa.mavenrun.action.RootProjectResolver;
+import krasa.mavenrun.action.RunConfigurationIndex;
+import krasa.mavenrun.action.SurefireRules;
+import krasa.mavenrun.action.fasttest.DebugTestServer;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.project.MavenImportListener;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.execution.RunManagerAdapter;
+import com.intellij.execution.RunManagerEx;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.ide.IdeEventQueue;
+import com.intellij.openapi.components.AbstractProjectComponent;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.startup.StartupManager;
+import com.intellij.util.messages.MessageBusConnection;
+
+/**
+ * Owns per-project caches and invalidates them on Maven reimport and run configuration changes.
+ *
+ * @author Vojtech Krasa
+ */
+public class MavenHelperProjectComponent extends AbstractProjectComponent {
+	private static final int REIMPORT_REMAINING_WHEN_IDLE_MILLIS = 30000;
+
+	private final ActionsCache actionsCache = new ActionsCache();
+	private final RunConfigurationIndex runConfigurationIndex;
+	private final RootProjectResolver rootProjectResolver;
+	private final ConcurrentMap<MavenProject, SurefireRules> surefireRules = new ConcurrentHashMap<MavenProject, SurefireRules>();
+	private final ConcurrentMap<Module, DebugTestServer> debugTestServers = new ConcurrentHashMap<Module, DebugTestServer>();
+	/** projects to reimport once the IDE becomes idle, accessed on EDT only */
+	private final Set<MavenProject> reimportWhenIdle = new LinkedHashSet<MavenProject>();
+	private Runnable idleListener;
+
+	public MavenHelperProjectComponent(Project project) {
+		super(project);
+		runConfigurationIndex = new RunConfigurationIndex(project);
+		rootProjectResolver = new RootProjectResolver(project);
+	}
+
+	public static MavenHelperProjectComponent getInstance(Project project) {
+		return project.getComponent(MavenHelperProjectComponent.class);
+	}
+
+	@Override
+	public void projectOpened() {
+		StartupManager.getInstance(myProject).runWhenProjectIsInitialized(new Runnable() {
+			@Override
+			public void run() {
+				PluginGoalsIndex.getInstance().index(myProject,
+						MavenProjectsManager.getInstance(myProject).getProjects());
+			}
+		});
+		MessageBusConnection connection = myProject.getMessageBus().connect(myProject);
+		connection.subscribe(MavenImportListener.TOPIC, new MavenImportListener() {
+			@Override
+			public void importFinished(Collection<MavenProject> importedProjects, List<Module> newModules) {
+				mavenProjectsImported();
+				PluginGoalsIndex.getInstance().index(myProject, importedProjects);
+			}
+		});
+		RunManagerEx.getInstanceEx(myProject).addRunManagerListener(new RunManagerAdapter() {
+			@Override
+			public void runConfigurationAdded(@NotNull RunnerAndConfigurationSettings settings) {
+				runConfigurationIndex.added(settings);
+				runConfigurationsChanged();
+			}
+
+			@Override
+			public void runConfigurationRemoved(@NotNull RunnerAndConfigurationSettings settings) {
+				runConfigurationIndex.removed(settings);
+				runConfigurationsChanged();
+			}
+
+			@Override
+			public void runConfigurationChanged(@NotNull RunnerAndConfigurationSettings settings) {
+				runConfigurationIndex.changed(settings);
+				runConfigurationsChanged();
+			}
+		});
+	}
+
+	@Override
+	public void projectClosed() {
+		DebugTestServer.stopAll(myProject);
+		debugTestServers.clear();
+		if (idleListener != null) {
+			IdeEventQueue.getInstance().removeIdleListener(idleListener);
+			idleListener = null;
+		}
+		reimportWhenIdle.clear();
+	}
+
+	/**
+	 * Queues all projects except the just reimported ones for a reimport once the IDE becomes idle. Requests of all
+	 * dependency analyzers share the queue, a project is reimported once. Must be called on EDT.
+	 */
+	public void reimportRemainingWhenIdle(Collection<MavenProject> reimported) {
+		reimportWhenIdle.addAll(MavenProjectsManager.getInstance(myProject).getProjects());
+		reimportWhenIdle.removeAll(reimported);
+		if (reimportWhenIdle.isEmpty() || idleListener != null) {
+			return;
+		}
+		idleListener = new Runnable() {
+			@Override
+			public void run() {
+				IdeEventQueue.getInstance().removeIdleListener(this);
+				idleListener = null;
+				if (myProject.isDisposed() || reimportWhenIdle.isEmpty()) {
+					return;
+				}
+				List<MavenProject> remaining = new ArrayList<MavenProject>(reimportWhenIdle);
+				reimportWhenIdle.clear();
+				MavenProjectsManager.getInstance(myProject).forceUpdateProjects(remaining);
+			}
+		};
+		IdeEventQueue.getInstance().addIdleListener(idleListener, REIMPORT_REMAINING_WHEN_IDLE_MILLIS);
+	}
+
+	private void mavenProjectsImported() {
+		rootProjectResolver.invalidate();
+		surefireRules.clear();
+		actionsCache.invalidate();
+	}
+
+	private void runConfigurationsChanged() {
+		actionsCache.invalidate();
+	}
+
+	public ActionsCache getActionsCache() {
+		return actionsCache;
+	}
+
+	public RunConfigurationIndex getRunConfigurationIndex() {
+		return runConfigurationIndex;
+	}
+
+	public RootProjectResolver getRootProjectResolver() {
+		return rootProjectResolver;
+	}
+
+	public ConcurrentMap<Module, DebugTestServer> getDebugTestServers() {
+		return debugTestServers;
+	}
+
+	public SurefireRules getSurefireRules(MavenProject mavenProject) {
+		SurefireRules rules = surefireRules.get(mavenProject);
+		if (rules == null) {
+			rules = SurefireRules.from(mavenProject);
+			surefireRules.put(mavenProject, rules);
+		}
+		return rules;
+	}
+
+	@NotNull
+	@Override
+	public String getComponentName() {
+		return "MavenHelperProjectComponent";
+	}
+}
@@ -0,0 +1,64 @@
+package krasa.mavenrun.action;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import krasa.mavenrun.ApplicationComponent;
+
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.openapi.actionSystem.AnAction;
+
+/**
+ * Built children of {@link MainMavenActionGroup} per Maven project and group flavor (run/debug/root). Invalidated on
+ * reimport, run configuration changes and settings changes.
+ *
+ * @author Vojtech Krasa
+ */
+public class ActionsCache {
+	private final ConcurrentMap<Key, AnAction[]> cache = new ConcurrentHashMap<Key, AnAction[]>();
+	private volatile long settingsModificationCount = -1;
+
+	public AnAction[] get(Class<? extends MainMavenActionGroup> flavor, MavenProject mavenProject) {
+		long modificationCount = ApplicationComponent.getInstance().getSettingsModificationCount();
+		if (modificationCount != settingsModificationCount) {
+			cache.clear();
+			settingsModificationCount = modificationCount;
+			return null;
+		}
+		return cache.get(new Key(flavor, mavenProject));
+	}
+
+	public void put(Class<? extends MainMavenActionGroup> flavor, MavenProject mavenProject, AnAction[] actions) {
+		cache.put(new Key(flavor, mavenProject), actions);
+	}
+
+	public void invalidate() {
+		cache.clear();
+	}
+
+	private static class Key {
+		private final Class<? extends MainMavenActionGroup> flavor;
+		private final MavenProject mavenProject;
+
+		private Key(Class<? extends MainMavenActionGroup> flavor, MavenProject mavenProject) {
+			this.flavor = flavor;
+			this.mavenProject = mavenProject;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			Key key = (Key) o;
+			return flavor.equals(key.flavor) && mavenProject.equals(key.mavenProject);
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * flavor.hashCode() + mavenProject.hashCode();
+		}
+	}
+}
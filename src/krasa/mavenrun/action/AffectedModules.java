@@ -0,0 +1,132 @@
+package krasa.mavenrun.action;
+
+import java.io.File;
+import java.util.*;
+
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenId;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vcs.FilePath;
+import com.intellij.openapi.vcs.changes.Change;
+import com.intellij.openapi.vcs.changes.ChangeListManager;
+import com.intellij.openapi.vcs.changes.ContentRevision;
+import com.intellij.util.PathUtil;
+
+/**
+ * Modules of a root project containing locally changed files, plus all modules depending on them.
+ *
+ * @author Vojtech Krasa
+ */
+public class AffectedModules {
+	private final Project project;
+	private final MavenProjectsManager projectsManager;
+
+	public AffectedModules(Project project) {
+		this.project = project;
+		this.projectsManager = MavenProjectsManager.getInstance(project);
+	}
+
+	/**
+	 * @return affected modules of the root project in reactor order of {@link MavenProjectsManager#getProjects()}
+	 */
+	public List<MavenProject> compute(MavenProject root) {
+		Map<String, MavenProject> projectsByDirectory = new HashMap<String, MavenProject>();
+		for (MavenProject mavenProject : projectsManager.getProjects()) {
+			projectsByDirectory.put(PathUtil.getCanonicalPath(mavenProject.getDirectory()), mavenProject);
+		}
+
+		Set<MavenProject> changed = new HashSet<MavenProject>();
+		for (String path : getChangedPaths()) {
+			MavenProject mavenProject = findContainingProject(projectsByDirectory, path);
+			if (mavenProject != null) {
+				changed.add(mavenProject);
+			}
+		}
+		if (changed.isEmpty()) {
+			return Collections.emptyList();
+		}
+
+		Set<MavenProject> affected = getDependentsClosure(changed);
+		List<MavenProject> result = new ArrayList<MavenProject>();
+		for (MavenProject mavenProject : projectsManager.getProjects()) {
+			if (affected.contains(mavenProject)
+					&& RootProjectResolver.isInReactor(projectsManager, mavenProject, root)) {
+				result.add(mavenProject);
+			}
+		}
+		return result;
+	}
+
+	private Set<String> getChangedPaths() {
+		Set<String> paths = new HashSet<String>();
+		for (Change change : ChangeListManager.getInstance(project).getAllChanges()) {
+			addPath(paths, change.getBeforeRevision());
+			addPath(paths, change.getAfterRevision());
+		}
+		return paths;
+	}
+
+	private void addPath(Set<String> paths, ContentRevision revision) {
+		if (revision != null) {
+			FilePath file = revision.getFile();
+			paths.add(PathUtil.getCanonicalPath(file.getPath()));
+		}
+	}
+
+	private MavenProject findContainingProject(Map<String, MavenProject> projectsByDirectory, String path) {
+		File file = new File(path).getParentFile();
+		while (file != null) {
+			MavenProject mavenProject = projectsByDirectory.get(PathUtil.getCanonicalPath(file.getPath()));
+			if (mavenProject != null) {
+				return mavenProject;
+			}
+			file = file.getParentFile();
+		}
+		return null;
+	}
+
+	/**
+	 * Dependencies and parent/child relations are both edges, a changed parent pom affects its children.
+	 */
+	private Set<MavenProject> getDependentsClosure(Set<MavenProject> changed) {
+		Map<MavenProject, List<MavenProject>> dependents = new HashMap<MavenProject, List<MavenProject>>();
+		for (MavenProject mavenProject : projectsManager.getProjects()) {
+			for (MavenArtifact dependency : mavenProject.getDependencies()) {
+				addEdge(dependents, projectsManager.findProject(dependency), mavenProject);
+			}
+			MavenId parentId = mavenProject.getParentId();
+			if (parentId != null) {
+				addEdge(dependents, projectsManager.findProject(parentId), mavenProject);
+			}
+		}
+
+		Set<MavenProject> result = new HashSet<MavenProject>(changed);
+		Deque<MavenProject> queue = new ArrayDeque<MavenProject>(changed);
+		while (!queue.isEmpty()) {
+			List<MavenProject> list = dependents.get(queue.poll());
+			if (list != null) {
+				for (MavenProject dependent : list) {
+					if (result.add(dependent)) {
+						queue.add(dependent);
+					}
+				}
+			}
+		}
+		return result;
+	}
+
+	private void addEdge(Map<MavenProject, List<MavenProject>> dependents, MavenProject from, MavenProject to) {
+		if (from == null || from == to) {
+			return;
+		}
+		List<MavenProject> list = dependents.get(from);
+		if (list == null) {
+			list = new ArrayList<MavenProject>();
+			dependents.put(from, list);
+		}
+		list.add(to);
+	}
+}
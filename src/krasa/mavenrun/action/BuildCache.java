@@ -0,0 +1,351 @@
+package krasa.mavenrun.action;
+
+import java.io.*;
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenId;
+import org.jetbrains.idea.maven.model.MavenResource;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
+
+/**
+ * Skips package/verify of a module when its inputs did not change since the last successful run. Inputs are the pom
+ * and its parents, source and resource roots, goals, profiles and resolved dependencies including the outputs of
+ * reactor modules; artifacts from the build directory are kept per fingerprint and restored on a hit. Install is
+ * never skipped, restoring the build directory would leave the local repository stale.
+ *
+ * @author Vojtech Krasa
+ */
+public class BuildCache {
+	private static final Logger LOG = Logger.getInstance(BuildCache.class);
+	public static final String NOTIFICATION_GROUP = "Maven Helper - Build Cache";
+	private static final Set<String> CACHEABLE_PHASES = new HashSet<String>(Arrays.asList("package", "verify"));
+	private static final Set<String> CACHEABLE_GOALS = new HashSet<String>(Arrays.asList("clean", "validate",
+			"compile", "test-compile", "test", "package", "verify"));
+	private static final int KEPT_ENTRIES = 3;
+
+	private final AtomicInteger hits = new AtomicInteger();
+	private final AtomicInteger misses = new AtomicInteger();
+
+	public static BuildCache getInstance() {
+		return ServiceManager.getService(BuildCache.class);
+	}
+
+	/**
+	 * Only plain lifecycle phases producing artifacts, no options or plugin goals.
+	 */
+	public static boolean isCacheable(List<String> goals) {
+		boolean producesArtifacts = false;
+		for (String goal : goals) {
+			if (!CACHEABLE_GOALS.contains(goal)) {
+				return false;
+			}
+			producesArtifacts |= CACHEABLE_PHASES.contains(goal);
+		}
+		return producesArtifacts;
+	}
+
+	/**
+	 * Only modules without modules of their own, the fingerprint does not cover the reactor of an aggregator.
+	 */
+	public static boolean isCacheable(MavenProject mavenProject) {
+		return mavenProject.getModulePaths().isEmpty() && !"pom".equals(mavenProject.getPackaging());
+	}
+
+	/**
+	 * Fingerprints the module in background, then restores the artifacts or runs Maven and stores them.
+	 */
+	public void run(final Project project, final MavenProject mavenProject, final MavenRunnerParameters params) {
+		new Task.Backgroundable(project, "Fingerprinting " + mavenProject.getDisplayName(), true) {
+			private String fingerprint;
+			private boolean hit;
+
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				fingerprint = fingerprint(MavenProjectsManager.getInstance(project), mavenProject, params);
+				hit = fingerprint != null && restore(mavenProject, fingerprint);
+			}
+
+			@Override
+			public void onSuccess() {
+				if (hit) {
+					hits.incrementAndGet();
+					showNotification(project, mavenProject.getDisplayName() + " is up to date, "
+							+ StringUtils.join(params.getGoals(), " ") + " skipped");
+					return;
+				}
+				misses.incrementAndGet();
+				MavenDaemon.runConfiguration(project, params, fingerprint == null ? null : new ProcessAdapter() {
+					@Override
+					public void processTerminated(ProcessEvent event) {
+						if (event.getExitCode() == 0) {
+							ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+								@Override
+								public void run() {
+									store(mavenProject, fingerprint);
+								}
+							});
+						}
+					}
+				});
+			}
+
+			@Override
+			public void onCancel() {
+				MavenDaemon.runConfiguration(project, params);
+			}
+		}.queue();
+	}
+
+	private void showNotification(Project project, String message) {
+		Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Build Cache", message + "<br>" + getStatistics(),
+				NotificationType.INFORMATION), project);
+	}
+
+	public String getStatistics() {
+		return "hits: " + hits.get() + ", misses: " + misses.get();
+	}
+
+	@Nullable
+	private String fingerprint(MavenProjectsManager projectsManager, MavenProject mavenProject,
+			MavenRunnerParameters params) {
+		SortedMap<String, File> files = new TreeMap<String, File>();
+		files.put("pom.xml", new File(mavenProject.getFile().getPath()));
+		addParents(files, projectsManager, mavenProject);
+		addRoots(files, "src", mavenProject.getSources());
+		addRoots(files, "test", mavenProject.getTestSources());
+		addResources(files, "resources", mavenProject.getResources());
+		addResources(files, "test-resources", mavenProject.getTestResources());
+
+		try {
+			MessageDigest digest = newDigest();
+			update(digest, StringUtils.join(params.getGoals(), " "));
+			update(digest, String.valueOf(params.getProfilesMap()));
+			List<MavenArtifact> dependencies = mavenProject.getDependencies();
+			for (int i = 0; i < dependencies.size(); i++) {
+				MavenArtifact dependency = dependencies.get(i);
+				update(digest, dependency.getMavenId().getKey() + ":" + dependency.getClassifier() + ":"
+						+ dependency.getScope());
+				File file = dependency.getFile();
+				MavenProject reactorModule = projectsManager.findProject(dependency);
+				if (reactorModule != null) {
+					// rebuilt without a version change, hash what the reactor resolves
+					collect(files, "dependency" + i + "/classes/", new File(reactorModule.getOutputDirectory()));
+					if (file != null && file.isFile()) {
+						files.put("dependency" + i + "/" + file.getName(), file);
+					}
+				} else if (file != null && dependency.getVersion() != null
+						&& dependency.getVersion().endsWith("SNAPSHOT")) {
+					update(digest, file.length() + ":" + file.lastModified());
+				}
+			}
+			for (Map.Entry<String, byte[]> entry : hashFiles(files).entrySet()) {
+				update(digest, entry.getKey());
+				digest.update(entry.getValue());
+			}
+			return String.format("%040x", new BigInteger(1, digest.digest()));
+		} catch (Exception e) {
+			LOG.warn("fingerprint failed for " + mavenProject.getDisplayName(), e);
+			return null;
+		}
+	}
+
+	/**
+	 * Parent poms from the project, or from the local repository for snapshot parents outside of it. Released
+	 * external parents are covered by their version in the module's pom.
+	 */
+	private void addParents(SortedMap<String, File> files, MavenProjectsManager projectsManager,
+			MavenProject mavenProject) {
+		Set<MavenId> visited = new HashSet<MavenId>();
+		MavenId parentId = mavenProject.getParentId();
+		for (int i = 0; parentId != null && visited.add(parentId); i++) {
+			MavenProject parent = projectsManager.findProject(parentId);
+			if (parent != null) {
+				files.put("parent" + i + "/pom.xml", new File(parent.getFile().getPath()));
+				parentId = parent.getParentId();
+			} else {
+				if (parentId.getVersion() != null && parentId.getVersion().endsWith("SNAPSHOT")) {
+					File pom = new File(projectsManager.getLocalRepository(), parentId.getGroupId().replace('.', '/')
+							+ "/" + parentId.getArtifactId() + "/" + parentId.getVersion() + "/"
+							+ parentId.getArtifactId() + "-" + parentId.getVersion() + ".pom");
+					if (pom.isFile()) {
+						files.put("parent" + i + "/pom.xml", pom);
+					}
+				}
+				return;
+			}
+		}
+	}
+
+	private void addRoots(SortedMap<String, File> files, String prefix, List<String> roots) {
+		for (int i = 0; i < roots.size(); i++) {
+			collect(files, prefix + i + "/", new File(roots.get(i)));
+		}
+	}
+
+	private void addResources(SortedMap<String, File> files, String prefix, List<MavenResource> resources) {
+		for (int i = 0; i < resources.size(); i++) {
+			collect(files, prefix + i + "/", new File(resources.get(i).getDirectory()));
+		}
+	}
+
+	private void collect(SortedMap<String, File> files, String prefix, File directory) {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				collect(files, prefix + child.getName() + "/", child);
+			} else {
+				files.put(prefix + child.getName(), child);
+			}
+		}
+	}
+
+	/**
+	 * @return path -> content hash, in path order
+	 */
+	private SortedMap<String, byte[]> hashFiles(SortedMap<String, File> files) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+		try {
+			Map<String, Future<byte[]>> futures = new LinkedHashMap<String, Future<byte[]>>();
+			for (Map.Entry<String, File> entry : files.entrySet()) {
+				final File file = entry.getValue();
+				futures.put(entry.getKey(), executor.submit(new Callable<byte[]>() {
+					@Override
+					public byte[] call() throws Exception {
+						return hash(file);
+					}
+				}));
+			}
+			SortedMap<String, byte[]> result = new TreeMap<String, byte[]>();
+			for (Map.Entry<String, Future<byte[]>> entry : futures.entrySet()) {
+				result.put(entry.getKey(), entry.getValue().get());
+			}
+			return result;
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private static byte[] hash(File file) throws IOException, NoSuchAlgorithmException {
+		MessageDigest digest = newDigest();
+		InputStream in = new BufferedInputStream(new FileInputStream(file));
+		try {
+			byte[] buffer = new byte[8192];
+			int read;
+			while ((read = in.read(buffer)) != -1) {
+				digest.update(buffer, 0, read);
+			}
+		} finally {
+			in.close();
+		}
+		return digest.digest();
+	}
+
+	private static MessageDigest newDigest() throws NoSuchAlgorithmException {
+		return MessageDigest.getInstance("SHA-1");
+	}
+
+	private static void update(MessageDigest digest, String s) throws UnsupportedEncodingException {
+		digest.update(s.getBytes("UTF-8"));
+		digest.update((byte) 0);
+	}
+
+	private File getModuleDirectory(MavenProject mavenProject) {
+		return new File(PathManager.getSystemPath(), "mavenHelper/buildCache/" + mavenProject.getMavenId().getGroupId()
+				+ "/" + mavenProject.getMavenId().getArtifactId());
+	}
+
+	/**
+	 * @return true when the fingerprint is known and its artifacts were copied to the build directory
+	 */
+	private boolean restore(MavenProject mavenProject, String fingerprint) {
+		File entry = new File(getModuleDirectory(mavenProject), fingerprint);
+		File[] artifacts = entry.listFiles();
+		if (artifacts == null || artifacts.length == 0) {
+			return false;
+		}
+		File buildDirectory = new File(mavenProject.getBuildDirectory());
+		try {
+			for (File artifact : artifacts) {
+				FileUtil.copy(artifact, new File(buildDirectory, artifact.getName()));
+			}
+			FileUtil.setLastModified(entry, System.currentTimeMillis());
+			return true;
+		} catch (IOException e) {
+			LOG.warn("restoring " + entry + " failed", e);
+			return false;
+		}
+	}
+
+	private void store(MavenProject mavenProject, String fingerprint) {
+		File[] files = new File(mavenProject.getBuildDirectory()).listFiles();
+		if (files == null) {
+			return;
+		}
+		File moduleDirectory = getModuleDirectory(mavenProject);
+		File entry = new File(moduleDirectory, fingerprint);
+		File temp = new File(moduleDirectory, fingerprint + ".tmp");
+		try {
+			FileUtil.delete(temp);
+			boolean empty = true;
+			for (File file : files) {
+				if (file.isFile()) {
+					FileUtil.copy(file, new File(temp, file.getName()));
+					empty = false;
+				}
+			}
+			if (!empty) {
+				FileUtil.delete(entry);
+				FileUtil.rename(temp, entry);
+				deleteOldEntries(moduleDirectory);
+			}
+		} catch (IOException e) {
+			LOG.warn("storing " + entry + " failed", e);
+		} finally {
+			FileUtil.delete(temp);
+		}
+	}
+
+	private void deleteOldEntries(File moduleDirectory) {
+		File[] entries = moduleDirectory.listFiles();
+		if (entries == null || entries.length <= KEPT_ENTRIES) {
+			return;
+		}
+		Arrays.sort(entries, new Comparator<File>() {
+			@Override
+			public int compare(File o1, File o2) {
+				return Long.valueOf(o2.lastModified()).compareTo(o1.lastModified());
+			}
+		});
+		for (int i = KEPT_ENTRIES; i < entries.length; i++) {
+			FileUtil.delete(entries[i]);
+		}
+	}
+}
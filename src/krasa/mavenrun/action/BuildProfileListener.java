@@ -0,0 +1,185 @@
+package krasa.mavenrun.action;
+
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import krasa.mavenrun.model.BuildProfile;
+import krasa.mavenrun.model.MojoTiming;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessOutputTypes;
+import com.intellij.openapi.util.Key;
+
+/**
+ * Times mojos of a running build from its console output. Lines are parsed as they arrive, only the current
+ * unfinished line is buffered. Mojo headers of parallel builds (-T) interleave and a mojo's end cannot be told from
+ * the output, only the reactor summary is recorded for them.
+ *
+ * @author Vojtech Krasa
+ */
+public class BuildProfileListener extends ProcessAdapter {
+	/** [INFO] --- maven-compiler-plugin:3.1:compile (default-compile) @ core --- */
+	private static final Pattern MOJO = Pattern.compile("--- ([^:\\s]+):([^:\\s]+):([^\\s]+) \\(([^)]*)\\) @ (\\S+) ---");
+	/** [INFO] Core ........................................ SUCCESS [  2.345 s] */
+	private static final Pattern SUMMARY = Pattern.compile("\\[INFO\\] (.+?) \\.+ ?(SUCCESS|FAILURE|SKIPPED)(?: \\[ *([\\d.,:]+) ?(ms|s|min|h)?\\])?");
+	private static final Pattern ANSI = Pattern.compile("\u001B\\[[;\\d]*m");
+
+	private final MavenRunnerParameters params;
+	private final boolean parallel;
+	private final StringBuilder line = new StringBuilder();
+	private BuildProfile profile;
+	private long start;
+	@Nullable
+	private MojoTiming current;
+	private boolean terminated;
+
+	public BuildProfileListener(MavenRunnerParameters params) {
+		this.params = params;
+		this.parallel = isParallel(params.getGoals());
+		reset();
+	}
+
+	static boolean isParallel(List<String> goals) {
+		for (int i = 0; i < goals.size(); i++) {
+			String goal = goals.get(i);
+			String threads = null;
+			if (goal.equals("-T") || goal.equals("--threads")) {
+				threads = i + 1 < goals.size() ? goals.get(i + 1) : null;
+			} else if (goal.startsWith("--threads=")) {
+				threads = goal.substring("--threads=".length());
+			} else if (goal.startsWith("-T")) {
+				threads = goal.substring("-T".length());
+			}
+			if (threads != null && !threads.equals("1")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private void reset() {
+		start = System.currentTimeMillis();
+		String goals = StringUtils.join(params.getGoals(), " ");
+		profile = new BuildProfile();
+		profile.setGoals(goals);
+		profile.setKey(params.getWorkingDirPath() + "|" + goals);
+		profile.setTimestamp(start);
+		current = null;
+		terminated = false;
+	}
+
+	/** the same listener is attached again on rerun */
+	@Override
+	public void startNotified(ProcessEvent event) {
+		synchronized (line) {
+			if (terminated) {
+				line.setLength(0);
+				reset();
+			}
+		}
+	}
+
+	@Override
+	public void onTextAvailable(ProcessEvent event, Key outputType) {
+		if (outputType == ProcessOutputTypes.SYSTEM) {
+			return;
+		}
+		String text = event.getText();
+		synchronized (line) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '\n') {
+					parseLine(line.toString());
+					line.setLength(0);
+				} else if (c != '\r') {
+					line.append(c);
+				}
+			}
+		}
+	}
+
+	private void parseLine(String text) {
+		if (text.indexOf("---") < 0 && text.indexOf("[INFO]") < 0) {
+			return;
+		}
+		text = ANSI.matcher(text).replaceAll("");
+		long now = System.currentTimeMillis() - start;
+		Matcher matcher = MOJO.matcher(text);
+		if (matcher.find()) {
+			if (parallel) {
+				return;
+			}
+			finishCurrent(now);
+			current = new MojoTiming(matcher.group(5), matcher.group(1), matcher.group(2), matcher.group(3),
+					matcher.group(4), now);
+			profile.getMojos().add(current);
+			return;
+		}
+		matcher = SUMMARY.matcher(text);
+		if (matcher.matches()) {
+			finishCurrent(now);
+			profile.getReactorSummary().put(matcher.group(1).trim(), parseDuration(matcher.group(3), matcher.group(4)));
+		} else if (current != null && (text.startsWith("[INFO] BUILD ") || text.startsWith("[INFO] Building ")
+				|| text.startsWith("[INFO] Reactor Summary"))) {
+			finishCurrent(now);
+		}
+	}
+
+	private void finishCurrent(long now) {
+		if (current != null) {
+			current.setDurationMillis(now - current.getStartMillis());
+			current = null;
+		}
+	}
+
+	static long parseDuration(@Nullable String value, @Nullable String unit) {
+		if (value == null) {
+			return 0;
+		}
+		try {
+			if (value.contains(":")) {
+				// 01:02 min or 01:02 h, Maven 3.0 prints 1:02.345s and 1:01:02.345s
+				String[] parts = value.replace(",", ".").split(":");
+				double seconds = 0;
+				for (String part : parts) {
+					seconds = seconds * 60 + Double.parseDouble(part);
+				}
+				if ("h".equals(unit)) {
+					seconds *= 60;
+				}
+				return (long) (seconds * 1000);
+			}
+			double number = Double.parseDouble(value.replace(",", "."));
+			if ("ms".equals(unit)) {
+				return (long) number;
+			}
+			return (long) (number * 1000);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	@Override
+	public void processTerminated(ProcessEvent event) {
+		synchronized (line) {
+			if (line.length() > 0) {
+				parseLine(line.toString());
+				line.setLength(0);
+			}
+			long now = System.currentTimeMillis() - start;
+			finishCurrent(now);
+			profile.setTotalMillis(now);
+			profile.setSuccess(event.getExitCode() == 0);
+			terminated = true;
+		}
+		if (!profile.getMojos().isEmpty() || !profile.getReactorSummary().isEmpty()) {
+			BuildProfiles.getInstance().add(profile);
+		}
+	}
+}
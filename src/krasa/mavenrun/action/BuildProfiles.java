@@ -0,0 +1,83 @@
+package krasa.mavenrun.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import krasa.mavenrun.model.BuildProfile;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+
+/**
+ * Last {@link #KEPT_PER_KEY} build profiles of each working directory + goals, newest first.
+ *
+ * @author Vojtech Krasa
+ */
+@State(name = "MavenRunHelperBuildProfiles", storages = { @Storage(id = "MavenRunHelperBuildProfiles", file = "$APP_CONFIG$/mavenRunHelperBuildProfiles.xml") })
+public class BuildProfiles implements PersistentStateComponent<BuildProfiles.ProfilesState> {
+	public static final int KEPT_PER_KEY = 5;
+	private static final int KEPT_KEYS = 50;
+
+	private ProfilesState state = new ProfilesState();
+
+	public static BuildProfiles getInstance() {
+		return ServiceManager.getService(BuildProfiles.class);
+	}
+
+	public synchronized void add(BuildProfile profile) {
+		List<BuildProfile> profiles = new ArrayList<BuildProfile>();
+		profiles.add(profile);
+		List<String> keys = new ArrayList<String>();
+		keys.add(profile.getKey());
+		int sameKey = 1;
+		for (BuildProfile old : state.profiles) {
+			if (old.getKey().equals(profile.getKey())) {
+				if (sameKey++ >= KEPT_PER_KEY) {
+					continue;
+				}
+			} else if (!keys.contains(old.getKey())) {
+				if (keys.size() >= KEPT_KEYS) {
+					continue;
+				}
+				keys.add(old.getKey());
+			}
+			profiles.add(old);
+		}
+		state.profiles = profiles;
+	}
+
+	/** newest first */
+	public synchronized List<BuildProfile> getProfiles() {
+		return new ArrayList<BuildProfile>(state.profiles);
+	}
+
+	/** newest first */
+	public synchronized List<BuildProfile> getProfiles(String key) {
+		List<BuildProfile> result = new ArrayList<BuildProfile>();
+		for (BuildProfile profile : state.profiles) {
+			if (profile.getKey().equals(key)) {
+				result.add(profile);
+			}
+		}
+		return result;
+	}
+
+	@NotNull
+	@Override
+	public synchronized ProfilesState getState() {
+		return state;
+	}
+
+	@Override
+	public synchronized void loadState(ProfilesState state) {
+		this.state = state;
+	}
+
+	public static class ProfilesState {
+		public List<BuildProfile> profiles = new ArrayList<BuildProfile>();
+	}
+}
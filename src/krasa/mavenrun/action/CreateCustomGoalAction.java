@@ -30,7 +30,8 @@ public class CreateCustomGoalAction extends AnAction implements DumbAware {
 		Goal goal = ApplicationSettingsForm.showDialog(state);
 		if (goal != null) {
 			state.getGoals().add(goal);
-			instance.registerAction(goal, getRunGoalAction(goal));
+			instance.settingsModified();
+			instance.registerGoalActions(goal);
 			runGoal(e, goal);
 		}
 	}
@@ -8,22 +8,19 @@ import java.util.Set;
 import javax.swing.*;
 
 import krasa.mavenrun.ApplicationComponent;
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.action.fasttest.FastTestFileAction;
+import krasa.mavenrun.diagnostics.Metrics;
 import krasa.mavenrun.model.ApplicationSettings;
 import krasa.mavenrun.model.Goal;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
-import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
 import org.jetbrains.idea.maven.model.MavenPlugin;
 import org.jetbrains.idea.maven.project.MavenProject;
-import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.project.actions.ReimportProjectAction;
-import org.jetbrains.idea.maven.utils.MavenArtifactUtil;
-import org.jetbrains.idea.maven.utils.MavenPluginInfo;
 import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
 
-import com.intellij.execution.RunManager;
 import com.intellij.execution.RunnerAndConfigurationSettings;
 import com.intellij.execution.executors.DefaultRunExecutor;
 import com.intellij.icons.AllIcons;
@@ -38,8 +35,6 @@ import icons.MavenIcons;
 public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	static final Logger LOG = Logger.getInstance(MainMavenActionGroup.class);
 
-	private Set<String> pluginGoalsSet = new HashSet<String>();
-
 	public MainMavenActionGroup() {
 	}
 
@@ -59,29 +54,59 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	}
 
 	public AnAction[] getActions(DataContext dataContext, Project project) {
-		List<AnAction> result = new ArrayList<AnAction>();
+		long start = Metrics.GET_ACTIONS.start();
+		try {
+			return doGetActions(dataContext, project);
+		} finally {
+			Metrics.GET_ACTIONS.stop(start);
+		}
+	}
+
+	private AnAction[] doGetActions(DataContext dataContext, Project project) {
 		MavenProject mavenProject = getMavenProject(dataContext);
-		if (mavenProject != null) {
-			addTestFile(result);
-			separator(result);
-			addRunConfigurations(result, project, mavenProject);
-			separator(result);
+		if (mavenProject == null) {
+			// test files from several modules
+			if (project != null && TestBatch.countSelectedTestFiles(project, dataContext) > 1) {
+				List<AnAction> result = new ArrayList<AnAction>();
+				addTestFile(result);
+				return result.toArray(new AnAction[result.size()]);
+			}
+			return new AnAction[0];
+		}
+		ActionsCache actionsCache = MavenHelperProjectComponent.getInstance(project).getActionsCache();
+		AnAction[] actions = actionsCache.get(getClass(), mavenProject);
+		if (actions == null) {
+			Metrics.ACTIONS_CACHE_MISS.increment();
+			actions = buildActions(project, mavenProject);
+			actionsCache.put(getClass(), mavenProject, actions);
+		} else {
+			Metrics.ACTIONS_CACHE_HIT.increment();
+		}
+		return actions;
+	}
 
-			addGoals(result);
-			separator(result);
+	protected AnAction[] buildActions(Project project, MavenProject mavenProject) {
+		List<AnAction> result = new ArrayList<AnAction>();
+		addTestFile(result);
+		separator(result);
+		addRunConfigurations(result, project, mavenProject);
+		separator(result);
 
-			List<MavenActionGroup> mavenActionGroups = getPlugins(project, mavenProject);
+		addGoals(result);
+		separator(result);
 
-			addPluginAwareActions(result, mavenActionGroups);
-			separator(result);
+		Set<String> pluginGoalsSet = new HashSet<String>();
+		List<MavenActionGroup> mavenActionGroups = getPlugins(project, mavenProject, pluginGoalsSet);
 
-			addPlugins(result, mavenActionGroups);
+		addPluginAwareActions(result, pluginGoalsSet);
+		separator(result);
 
-			separator(result);
-			addReimport(result);
-			result.add(getCreateCustomGoalAction());
+		addPlugins(result, mavenActionGroups);
 
-		}
+		separator(result);
+		addReimport(result);
+		result.add(getCreateCustomGoalAction());
+		result.add(new ShowBuildProfilesAction());
 		return result.toArray(new AnAction[result.size()]);
 	}
 
@@ -90,16 +115,10 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 	}
 
 	private void addRunConfigurations(List<AnAction> result, Project project, final MavenProject mavenProject) {
-		final RunnerAndConfigurationSettings[] configurationSettings = RunManager.getInstance(project).getConfigurationSettings(
-				MavenRunConfigurationType.getInstance());
-
 		String directory = PathUtil.getCanonicalPath(mavenProject.getDirectory());
-
-		for (RunnerAndConfigurationSettings cfg : configurationSettings) {
-			MavenRunConfiguration mavenRunConfiguration = (MavenRunConfiguration) cfg.getConfiguration();
-			if (directory.equals(PathUtil.getCanonicalPath(mavenRunConfiguration.getRunnerParameters().getWorkingDirPath()))) {
-				result.add(getRunConfigurationAction(project, cfg));
-			}
+		RunConfigurationIndex index = MavenHelperProjectComponent.getInstance(project).getRunConfigurationIndex();
+		for (RunnerAndConfigurationSettings cfg : index.getConfigurations(directory)) {
+			result.add(getRunConfigurationAction(project, cfg));
 		}
 	}
 
@@ -122,6 +141,9 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 
 	protected void addTestFile(List<AnAction> result) {
 		result.add(new RunTestFileAction());
+		result.add(new FastTestFileAction());
+		result.add(new ParallelTestsAction());
+		result.add(new RerunFailedTestsAction());
 	}
 
 	private void addPlugins(List<AnAction> anActions, List<MavenActionGroup> mavenActionGroups) {
@@ -151,8 +173,7 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 		return ApplicationComponent.getInstance().getState();
 	}
 
-	private void addPluginAwareActions(List<AnAction> anActions, List<MavenActionGroup> mavenActionGroups) {
-		assert mavenActionGroups != null; // just to be sure that pluginGoalsSet was initialized
+	private void addPluginAwareActions(List<AnAction> anActions, Set<String> pluginGoalsSet) {
 		for (Goal goal : getState().getPluginAwareGoals().getGoals()) {
 			if (pluginGoalsSet.contains(goal.getCommandLine())) {
 				anActions.add(createGoalRunAction(goal.getCommandLine(), getRunIcon()));
@@ -160,12 +181,12 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 		}
 	}
 
-	private List<MavenActionGroup> getPlugins(Project project, MavenProject mavenProject) {
+	private List<MavenActionGroup> getPlugins(Project project, MavenProject mavenProject, Set<String> pluginGoalsSet) {
 		List<MavenActionGroup> mavenActionGroups = new ArrayList<MavenActionGroup>();
 		for (MavenPlugin mavenPlugin : mavenProject.getDeclaredPlugins()) {
 			MavenActionGroup plugin = new MavenActionGroup(mavenPlugin.getArtifactId(), true);
 			plugin.getTemplatePresentation().setIcon(getIcon());
-			addPluginGoals(project, mavenPlugin, plugin);
+			addPluginGoals(project, mavenPlugin, plugin, pluginGoalsSet);
 			mavenActionGroups.add(plugin);
 		}
 		return mavenActionGroups;
@@ -179,13 +200,13 @@ public class MainMavenActionGroup extends ActionGroup implements DumbAware {
 		return MavenIcons.PhasesClosed;
 	}
 
-	private void addPluginGoals(Project project, MavenPlugin mavenPlugin, MavenActionGroup pluginGroup) {
-		MavenPluginInfo pluginInfo = MavenArtifactUtil.readPluginInfo(
-				MavenProjectsManager.getInstance(project).getLocalRepository(), mavenPlugin.getMavenId());
-		if (pluginInfo != null) {
-			for (MavenPluginInfo.Mojo mojo : pluginInfo.getMojos()) {
-				pluginGoalsSet.add(mojo.getDisplayName());
-				pluginGroup.add(createGoalRunAction(mojo.getDisplayName(), MavenIcons.PluginGoal));
+	private void addPluginGoals(Project project, MavenPlugin mavenPlugin, MavenActionGroup pluginGroup,
+			Set<String> pluginGoalsSet) {
+		List<String> goals = PluginGoalsIndex.getInstance().getGoals(project, mavenPlugin);
+		if (goals != null) {
+			for (String goal : goals) {
+				pluginGoalsSet.add(goal);
+				pluginGroup.add(createGoalRunAction(goal, MavenIcons.PluginGoal));
 			}
 		}
 	}
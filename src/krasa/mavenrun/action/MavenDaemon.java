@@ -0,0 +1,314 @@
+package krasa.mavenrun.action;
+
+import java.io.File;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import krasa.mavenrun.ApplicationComponent;
+import krasa.mavenrun.model.ApplicationSettings;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
+import org.jetbrains.idea.maven.execution.MavenRunner;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.execution.MavenRunnerSettings;
+import org.jetbrains.idea.maven.project.MavenGeneralSettings;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.utils.MavenUtil;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunContentExecutor;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.RunnerRegistry;
+import com.intellij.execution.configurations.GeneralCommandLine;
+import com.intellij.execution.configurations.RunProfileState;
+import com.intellij.execution.executors.DefaultRunExecutor;
+import com.intellij.execution.impl.DefaultJavaProgramRunner;
+import com.intellij.execution.process.CapturingProcessHandler;
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessHandler;
+import com.intellij.execution.process.ProcessListener;
+import com.intellij.execution.process.ProcessOutput;
+import com.intellij.execution.runners.ExecutionEnvironment;
+import com.intellij.execution.runners.ProgramRunner;
+import com.intellij.execution.ui.RunContentDescriptor;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.projectRoots.ProjectJdkTable;
+import com.intellij.openapi.projectRoots.Sdk;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.Key;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.util.SystemProperties;
+
+/**
+ * Runs goals in a warm Maven Daemon (mvnd) instead of a new Maven JVM, when enabled in settings. The daemon keeps
+ * the JVM and plugin classloaders between builds. The Maven settings of the project (JDK, settings.xml, offline,
+ * local repository, VM options, environment, skip tests) are passed to mvnd. Falls back to the normal Maven runner
+ * when the mvnd client cannot be run.
+ *
+ * @author Vojtech Krasa
+ */
+public class MavenDaemon {
+	private static final Logger LOG = Logger.getInstance(MavenDaemon.class);
+	private static final int STATUS_TIMEOUT_MILLIS = 5000;
+	private static final long CHECK_INTERVAL_MILLIS = 60 * 1000;
+
+	/** executable -> time of last successful check */
+	private static final ConcurrentMap<String, Long> runnable = new ConcurrentHashMap<String, Long>();
+
+	public static void runConfiguration(final Project project, final MavenRunnerParameters params) {
+		runConfiguration(project, params, null);
+	}
+
+	/**
+	 * Replacement for {@link MavenRunConfigurationType#runConfiguration}, must be called on EDT.
+	 *
+	 * @param listener attached to the started process
+	 */
+	public static void runConfiguration(final Project project, final MavenRunnerParameters params,
+			@Nullable ProcessListener listener) {
+		run(project, params, new CompositeListener(new BuildProfileListener(params), listener));
+	}
+
+	private static void run(final Project project, final MavenRunnerParameters params,
+			final ProcessListener listener) {
+		ApplicationSettings settings = ApplicationComponent.getInstance().getState();
+		if (!settings.isUseMavenDaemon() || StringUtils.isBlank(settings.getMavenDaemonExecutable())) {
+			runInMaven(project, params, listener);
+			return;
+		}
+		final String executable = settings.getMavenDaemonExecutable().trim();
+		Long lastCheck = runnable.get(executable);
+		if (lastCheck != null && System.currentTimeMillis() - lastCheck < CHECK_INTERVAL_MILLIS) {
+			runInDaemon(project, executable, params, listener);
+			return;
+		}
+		ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+			@Override
+			public void run() {
+				final boolean ok = checkExecutable(executable);
+				ApplicationManager.getApplication().invokeLater(new Runnable() {
+					@Override
+					public void run() {
+						if (project.isDisposed()) {
+							return;
+						}
+						if (ok) {
+							runInDaemon(project, executable, params, listener);
+						} else {
+							runInMaven(project, params, listener);
+						}
+					}
+				}, ModalityState.NON_MODAL);
+			}
+		});
+	}
+
+	/**
+	 * Only checks that the mvnd client runs, "--status" succeeds also when no daemon is up. The client starts a new
+	 * daemon itself when none is idle or compatible.
+	 */
+	private static boolean checkExecutable(String executable) {
+		try {
+			GeneralCommandLine commandLine = new GeneralCommandLine(executable, "--status");
+			ProcessOutput output = new CapturingProcessHandler(commandLine).runProcess(STATUS_TIMEOUT_MILLIS);
+			if (!output.isTimeout() && output.getExitCode() == 0) {
+				runnable.put(executable, System.currentTimeMillis());
+				return true;
+			}
+			LOG.warn("Maven Daemon client failed, exit code " + output.getExitCode() + ", timeout "
+					+ output.isTimeout() + ": " + output.getStderr());
+		} catch (ExecutionException e) {
+			LOG.warn("Maven Daemon client cannot be started: " + executable, e);
+		}
+		runnable.remove(executable);
+		return false;
+	}
+
+	private static void runInMaven(Project project, MavenRunnerParameters params,
+			@Nullable final ProcessListener listener) {
+		RunnerAndConfigurationSettings configSettings = MavenRunConfigurationType.createRunnerAndConfigurationSettings(
+				null, null, params, project);
+		ProgramRunner runner = listener == null ? RunnerRegistry.getInstance().findRunnerById(
+				DefaultRunExecutor.EXECUTOR_ID) : new ListeningRunner(listener);
+		ExecutionEnvironment env = new ExecutionEnvironment(DefaultRunExecutor.getRunExecutorInstance(), runner,
+				configSettings, project);
+		try {
+			runner.execute(env, null);
+		} catch (ExecutionException e) {
+			MavenUtil.showError(project, "Failed to execute Maven goal", e);
+		}
+	}
+
+	private static void runInDaemon(final Project project, String executable, final MavenRunnerParameters params,
+			@Nullable final ProcessListener listener) {
+		GeneralCommandLine commandLine = new GeneralCommandLine(executable);
+		commandLine.setWorkDirectory(params.getWorkingDirPath());
+		addSettings(project, commandLine);
+		commandLine.addParameters(params.getGoals());
+		String profiles = getProfiles(params);
+		if (!profiles.isEmpty()) {
+			commandLine.addParameters("-P", profiles);
+		}
+		try {
+			OSProcessHandler processHandler = new OSProcessHandler(commandLine);
+			if (listener != null) {
+				processHandler.addProcessListener(listener);
+			}
+			new RunContentExecutor(project, processHandler).withTitle(
+					"mvnd " + StringUtils.join(params.getGoals(), " ")).withRerun(new Runnable() {
+				@Override
+				public void run() {
+					run(project, params, listener);
+				}
+			}).withActivateToolWindow(true).run();
+		} catch (ExecutionException e) {
+			LOG.warn("Maven Daemon failed, falling back to Maven runner", e);
+			runnable.remove(executable);
+			runInMaven(project, params, listener);
+		}
+	}
+
+	/**
+	 * Same settings as the Maven runner applies, see MavenExternalParameters.
+	 */
+	private static void addSettings(Project project, GeneralCommandLine commandLine) {
+		MavenGeneralSettings generalSettings = MavenProjectsManager.getInstance(project).getGeneralSettings();
+		if (StringUtil.isNotEmpty(generalSettings.getUserSettingsFile())) {
+			commandLine.addParameters("-s", generalSettings.getUserSettingsFile());
+		}
+		if (generalSettings.isWorkOffline()) {
+			commandLine.addParameter("-o");
+		}
+		if (generalSettings.isAlwaysUpdateSnapshots()) {
+			commandLine.addParameter("-U");
+		}
+		addOption(commandLine, generalSettings.getFailureBehavior().getCommandLineOption());
+		addOption(commandLine, generalSettings.getChecksumPolicy().getCommandLineOption());
+		File localRepository = generalSettings.getEffectiveLocalRepository();
+		if (localRepository != null) {
+			commandLine.addParameter("-Dmaven.repo.local=" + localRepository.getPath());
+		}
+
+		MavenRunnerSettings runnerSettings = MavenRunner.getInstance(project).getState();
+		if (StringUtil.isNotEmpty(runnerSettings.getVmOptions())) {
+			commandLine.addParameter("-Dmvnd.jvmArgs=" + runnerSettings.getVmOptions().trim());
+		}
+		if (runnerSettings.isSkipTests()) {
+			commandLine.addParameter("-DskipTests=true");
+		}
+		for (Map.Entry<String, String> entry : runnerSettings.getMavenProperties().entrySet()) {
+			commandLine.addParameter("-D" + entry.getKey() + "=" + entry.getValue());
+		}
+		commandLine.setPassParentEnvironment(runnerSettings.isPassParentEnv());
+		commandLine.getEnvironment().putAll(runnerSettings.getEnvironmentProperties());
+		String javaHome = getJavaHome(project, runnerSettings.getJreName());
+		if (javaHome != null) {
+			commandLine.getEnvironment().put("JAVA_HOME", javaHome);
+		}
+	}
+
+	private static void addOption(GeneralCommandLine commandLine, @Nullable String option) {
+		if (StringUtil.isNotEmpty(option)) {
+			commandLine.addParameter(option);
+		}
+	}
+
+	/**
+	 * @return null to keep JAVA_HOME of the environment
+	 */
+	@Nullable
+	private static String getJavaHome(Project project, String jreName) {
+		Sdk sdk;
+		if (StringUtil.isEmpty(jreName) || MavenRunnerSettings.USE_JAVA_HOME.equals(jreName)) {
+			return null;
+		} else if (MavenRunnerSettings.USE_INTERNAL_JAVA.equals(jreName)) {
+			return SystemProperties.getJavaHome();
+		} else if (MavenRunnerSettings.USE_PROJECT_JDK.equals(jreName)) {
+			sdk = ProjectRootManager.getInstance(project).getProjectSdk();
+		} else {
+			sdk = ProjectJdkTable.getInstance().findJdk(jreName);
+		}
+		return sdk == null ? null : sdk.getHomePath();
+	}
+
+	private static String getProfiles(MavenRunnerParameters params) {
+		StringBuilder sb = new StringBuilder();
+		for (Map.Entry<String, Boolean> entry : params.getProfilesMap().entrySet()) {
+			if (sb.length() > 0) {
+				sb.append(",");
+			}
+			if (!entry.getValue()) {
+				sb.append("!");
+			}
+			sb.append(entry.getKey());
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * Attaches the listener as soon as the process handler exists, before startNotify, so that no output or start
+	 * event is missed. A {@link ProgramRunner.Callback} may be called after the process started.
+	 */
+	private static class ListeningRunner extends DefaultJavaProgramRunner {
+		private final ProcessListener listener;
+
+		private ListeningRunner(ProcessListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		protected RunContentDescriptor doExecute(@NotNull Project project, @NotNull RunProfileState state,
+				RunContentDescriptor contentToReuse, @NotNull ExecutionEnvironment env) throws ExecutionException {
+			RunContentDescriptor descriptor = super.doExecute(project, state, contentToReuse, env);
+			ProcessHandler processHandler = descriptor == null ? null : descriptor.getProcessHandler();
+			if (processHandler != null) {
+				processHandler.addProcessListener(listener);
+			}
+			return descriptor;
+		}
+	}
+
+	private static class CompositeListener extends ProcessAdapter {
+		private final ProcessListener[] listeners;
+
+		private CompositeListener(ProcessListener... listeners) {
+			this.listeners = listeners;
+		}
+
+		@Override
+		public void startNotified(ProcessEvent event) {
+			for (ProcessListener listener : listeners) {
+				if (listener != null) {
+					listener.startNotified(event);
+				}
+			}
+		}
+
+		@Override
+		public void onTextAvailable(ProcessEvent event, Key outputType) {
+			for (ProcessListener listener : listeners) {
+				if (listener != null) {
+					listener.onTextAvailable(event, outputType);
+				}
+			}
+		}
+
+		@Override
+		public void processTerminated(ProcessEvent event) {
+			for (ProcessListener listener : listeners) {
+				if (listener != null) {
+					listener.processTerminated(event);
+				}
+			}
+		}
+	}
+}
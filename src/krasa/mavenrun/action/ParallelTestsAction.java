@@ -0,0 +1,216 @@
+package krasa.mavenrun.action;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.icons.AllIcons;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Compiles tests once, then runs the module tests in several Maven processes, split by durations from previous
+ * surefire reports.
+ *
+ * @author Vojtech Krasa
+ */
+public class ParallelTestsAction extends DumbAwareAction {
+	public static final String NOTIFICATION_GROUP = "Maven Helper - Parallel Tests";
+
+	public ParallelTestsAction() {
+		super("Parallel Test Run", "Run all tests of the module in parallel Maven processes", AllIcons.Actions.Execute);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		final Project project = e.getProject();
+		final MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		if (project == null || mavenProject == null) {
+			return;
+		}
+		final SurefireRules rules = MavenHelperProjectComponent.getInstance(project).getSurefireRules(mavenProject);
+		new Task.Backgroundable(project, "Splitting tests of " + mavenProject.getDisplayName(), true) {
+			private List<List<String>> shards;
+
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				Set<String> testClasses = findTestClasses(rules);
+				Map<String, Long> durations = new HashMap<String, Long>();
+				for (File report : SurefireReports.findReports(getReportsDirectory(mavenProject))) {
+					SurefireReports.Suite suite = SurefireReports.readSuite(report);
+					if (suite != null && suite.getName() != null) {
+						durations.put(suite.getName(), suite.getTimeMillis());
+					}
+				}
+				shards = TestShards.split(testClasses, durations, Runtime.getRuntime().availableProcessors());
+			}
+
+			@Override
+			public void onSuccess() {
+				if (shards.isEmpty() || shards.get(0).isEmpty()) {
+					Messages.showInfoMessage(project, "No test classes found", "Parallel Test Run");
+					return;
+				}
+				new ParallelRun(project, mavenProject, shards).start();
+			}
+		}.queue();
+	}
+
+	@Override
+	public void update(AnActionEvent e) {
+		super.update(e);
+		e.getPresentation().setEnabledAndVisible(MavenActionUtil.getMavenProject(e.getDataContext()) != null);
+	}
+
+	private static Set<String> findTestClasses(SurefireRules rules) {
+		Set<String> result = new TreeSet<String>();
+		for (String directory : rules.getTestSourceDirectories()) {
+			collect(result, rules, new File(directory), "");
+		}
+		return result;
+	}
+
+	private static void collect(Set<String> result, SurefireRules rules, File directory, String relativePath) {
+		File[] files = directory.listFiles();
+		if (files == null) {
+			return;
+		}
+		for (File file : files) {
+			String path = relativePath + file.getName();
+			if (file.isDirectory()) {
+				collect(result, rules, file, path + "/");
+			} else if (path.endsWith(".java") && rules.isTestClass(path)) {
+				result.add(StringUtils.removeEnd(path, ".java").replace('/', '.'));
+			}
+		}
+	}
+
+	private static File getReportsDirectory(MavenProject mavenProject) {
+		return new File(mavenProject.getBuildDirectory(), "surefire-reports");
+	}
+
+	private static class ParallelRun {
+		private final Project project;
+		private final MavenProject mavenProject;
+		private final List<List<String>> shards;
+		private final AtomicInteger running = new AtomicInteger();
+		private final AtomicInteger failedShards = new AtomicInteger();
+		private long start;
+
+		private ParallelRun(Project project, MavenProject mavenProject, List<List<String>> shards) {
+			this.project = project;
+			this.mavenProject = mavenProject;
+			this.shards = shards;
+		}
+
+		private void start() {
+			start = System.currentTimeMillis();
+			run(Collections.singletonList("test-compile"), new ProcessAdapter() {
+				@Override
+				public void processTerminated(ProcessEvent event) {
+					if (event.getExitCode() == 0) {
+						ApplicationManager.getApplication().invokeLater(new Runnable() {
+							@Override
+							public void run() {
+								if (!project.isDisposed()) {
+									startShards();
+								}
+							}
+						});
+					}
+				}
+			});
+		}
+
+		/** the classes of shards are disjoint, so their reports do not collide in surefire-reports */
+		private void startShards() {
+			running.set(shards.size());
+			for (List<String> shard : shards) {
+				List<String> goals = new ArrayList<String>();
+				goals.add("-Dtest=" + StringUtils.join(shard, ","));
+				goals.add("-DfailIfNoTests=false");
+				goals.add("surefire:test");
+				run(goals, new ProcessAdapter() {
+					@Override
+					public void processTerminated(ProcessEvent event) {
+						if (event.getExitCode() != 0) {
+							failedShards.incrementAndGet();
+						}
+						if (running.decrementAndGet() == 0) {
+							ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+								@Override
+								public void run() {
+									summarize();
+								}
+							});
+						}
+					}
+				});
+			}
+		}
+
+		private void run(List<String> goals, ProcessAdapter listener) {
+			MavenRunnerParameters params = new MavenRunnerParameters(true, mavenProject.getDirectory(), goals,
+					MavenProjectsManager.getInstance(project).getExplicitProfiles());
+			MavenDaemon.runConfiguration(project, params, listener);
+		}
+
+		private void summarize() {
+			Set<String> testClasses = new HashSet<String>();
+			for (List<String> shard : shards) {
+				testClasses.addAll(shard);
+			}
+			int suites = 0, tests = 0, failures = 0, errors = 0, skipped = 0;
+			long testMillis = 0;
+			for (File report : SurefireReports.findReports(getReportsDirectory(mavenProject))) {
+				if (report.lastModified() < start) {
+					continue;
+				}
+				SurefireReports.Suite suite = SurefireReports.readSuite(report);
+				if (suite != null && testClasses.contains(suite.getName())) {
+					suites++;
+					tests += suite.getTests();
+					failures += suite.getFailures();
+					errors += suite.getErrors();
+					skipped += suite.getSkipped();
+					testMillis += suite.getTimeMillis();
+				}
+			}
+			long wallMillis = System.currentTimeMillis() - start;
+			boolean ok = failedShards.get() == 0 && failures == 0 && errors == 0;
+			String content = shards.size() + " processes, " + suites + " classes, tests: " + tests + ", failures: "
+					+ failures + ", errors: " + errors + ", skipped: " + skipped + "<br>wall time "
+					+ StringUtil.formatDuration(wallMillis) + ", sum of test times "
+					+ StringUtil.formatDuration(testMillis);
+			final Notification notification = new Notification(NOTIFICATION_GROUP, "Parallel Test Run "
+					+ mavenProject.getDisplayName(), content, ok ? NotificationType.INFORMATION
+					: NotificationType.ERROR);
+			ApplicationManager.getApplication().invokeLater(new Runnable() {
+				@Override
+				public void run() {
+					Notifications.Bus.notify(notification, project);
+				}
+			});
+		}
+	}
+}
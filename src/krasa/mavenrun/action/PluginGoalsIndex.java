@@ -0,0 +1,181 @@
+package krasa.mavenrun.action;
+
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenId;
+import org.jetbrains.idea.maven.model.MavenPlugin;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.utils.MavenArtifactUtil;
+import org.jetbrains.idea.maven.utils.MavenPluginInfo;
+
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.ServiceManager;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+
+/**
+ * Mojo names per plugin GAV, so that menus do not need to open plugin jars. Filled in background, persisted across
+ * restarts. Plugins missing in the local repository are not retried before the next Maven import.
+ *
+ * @author Vojtech Krasa
+ */
+@State(name = "MavenRunHelperPluginGoalsIndex", storages = { @Storage(id = "MavenRunHelperPluginGoalsIndex", file = "$APP_CONFIG$/mavenRunHelperPluginGoalsIndex.xml") })
+public class PluginGoalsIndex implements PersistentStateComponent<PluginGoalsIndex.IndexState> {
+	private static final Logger LOG = Logger.getInstance(PluginGoalsIndex.class);
+	private static final int MAX_THREADS = 4;
+
+	private final ConcurrentMap<String, List<String>> goalsByPlugin = new ConcurrentHashMap<String, List<String>>();
+	private final Set<String> scheduled = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	/** not in the local repository at the last attempt */
+	private final Set<String> missing = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+	private final ThreadPoolExecutor executor;
+
+	public PluginGoalsIndex() {
+		executor = new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 60, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+					@Override
+					public Thread newThread(@NotNull Runnable r) {
+						Thread thread = new Thread(r, "Maven Helper plugin goals index");
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+		executor.allowCoreThreadTimeOut(true);
+	}
+
+	public static PluginGoalsIndex getInstance() {
+		return ServiceManager.getService(PluginGoalsIndex.class);
+	}
+
+	/**
+	 * Reads only from memory, an unknown plugin is scheduled for indexing and {@code null} is returned.
+	 */
+	@Nullable
+	public List<String> getGoals(Project project, MavenPlugin mavenPlugin) {
+		String key = getKey(mavenPlugin.getMavenId());
+		List<String> goals = goalsByPlugin.get(key);
+		if (goals == null && !missing.contains(key)) {
+			index(project, Collections.singletonList(mavenPlugin), false);
+		}
+		return goals;
+	}
+
+	/**
+	 * After an import, plugins missing before may have been downloaded.
+	 */
+	public void index(Project project, Collection<MavenProject> mavenProjects) {
+		Set<MavenPlugin> plugins = new HashSet<MavenPlugin>();
+		for (MavenProject mavenProject : mavenProjects) {
+			plugins.addAll(mavenProject.getDeclaredPlugins());
+		}
+		for (MavenPlugin plugin : plugins) {
+			missing.remove(getKey(plugin.getMavenId()));
+		}
+		index(project, plugins, true);
+	}
+
+	private void index(final Project project, Collection<MavenPlugin> plugins, boolean reindexSnapshots) {
+		final List<MavenId> toIndex = new ArrayList<MavenId>();
+		for (MavenPlugin plugin : plugins) {
+			MavenId mavenId = plugin.getMavenId();
+			String key = getKey(mavenId);
+			boolean snapshot = reindexSnapshots && key.endsWith("SNAPSHOT");
+			if ((snapshot || !goalsByPlugin.containsKey(key)) && scheduled.add(key)) {
+				toIndex.add(mavenId);
+			}
+		}
+		if (toIndex.isEmpty()) {
+			return;
+		}
+		final File localRepository = MavenProjectsManager.getInstance(project).getLocalRepository();
+		final AtomicInteger remaining = new AtomicInteger(toIndex.size());
+		final AtomicBoolean changed = new AtomicBoolean();
+		for (final MavenId mavenId : toIndex) {
+			executor.execute(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						if (readPluginInfo(localRepository, mavenId)) {
+							changed.set(true);
+						}
+					} catch (Throwable e) {
+						LOG.warn("reading " + mavenId + " failed", e);
+					} finally {
+						if (remaining.decrementAndGet() == 0 && changed.get() && !project.isDisposed()) {
+							MavenHelperProjectComponent.getInstance(project).getActionsCache().invalidate();
+						}
+					}
+				}
+			});
+		}
+	}
+
+	/**
+	 * @return true if the goals of the plugin changed
+	 */
+	private boolean readPluginInfo(File localRepository, MavenId mavenId) {
+		String key = getKey(mavenId);
+		try {
+			MavenPluginInfo pluginInfo = MavenArtifactUtil.readPluginInfo(localRepository, mavenId);
+			if (pluginInfo == null) {
+				// not downloaded yet, try again after the next import
+				missing.add(key);
+				return false;
+			}
+			List<String> goals = new ArrayList<String>();
+			for (MavenPluginInfo.Mojo mojo : pluginInfo.getMojos()) {
+				goals.add(mojo.getDisplayName());
+			}
+			return !goals.equals(goalsByPlugin.put(key, goals));
+		} finally {
+			scheduled.remove(key);
+		}
+	}
+
+	private static String getKey(MavenId mavenId) {
+		return mavenId.getGroupId() + ":" + mavenId.getArtifactId() + ":" + mavenId.getVersion();
+	}
+
+	@NotNull
+	@Override
+	public IndexState getState() {
+		IndexState state = new IndexState();
+		for (Map.Entry<String, List<String>> entry : new TreeMap<String, List<String>>(goalsByPlugin).entrySet()) {
+			PluginGoals pluginGoals = new PluginGoals();
+			pluginGoals.plugin = entry.getKey();
+			pluginGoals.goals = new ArrayList<String>(entry.getValue());
+			state.plugins.add(pluginGoals);
+		}
+		return state;
+	}
+
+	@Override
+	public void loadState(IndexState state) {
+		goalsByPlugin.clear();
+		for (PluginGoals plugin : state.plugins) {
+			if (plugin.plugin != null && plugin.goals != null) {
+				goalsByPlugin.put(plugin.plugin, plugin.goals);
+			}
+		}
+	}
+
+	public static class IndexState {
+		public List<PluginGoals> plugins = new ArrayList<PluginGoals>();
+	}
+
+	public static class PluginGoals {
+		public String plugin;
+		public List<String> goals = new ArrayList<String>();
+	}
+}
@@ -0,0 +1,366 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+import krasa.mavenrun.model.BuildProfile;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenId;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.util.PathUtil;
+
+/**
+ * Critical path and simulated wall-clock time of a reactor build with -T N, from module times of previous runs.
+ * Scheduling is the same as in Maven's multithreaded builder - a module starts when all its upstream modules are
+ * done and a thread is free, ready modules are taken in reactor order.
+ *
+ * @author Vojtech Krasa
+ */
+public class ReactorSimulator {
+	/** smallest thread count within this ratio of the best simulated time is recommended */
+	private static final double RECOMMENDATION_TOLERANCE = 1.05;
+
+	private final List<String> modules;
+	private final Map<String, Long> millis;
+	private final Map<String, List<String>> upstream;
+	private final Set<String> unknown = new LinkedHashSet<String>();
+	/** by reactor index */
+	private final long[] moduleMillis;
+	private final int[] upstreamCounts;
+	private final int[][] downstream;
+
+	/**
+	 * @param modules in reactor order, upstream modules first
+	 * @param upstream module -> modules it depends on
+	 */
+	public ReactorSimulator(List<String> modules, Map<String, Long> millis, Map<String, List<String>> upstream) {
+		this.modules = modules;
+		this.millis = millis;
+		this.upstream = upstream;
+		Map<String, Integer> indexes = new HashMap<String, Integer>();
+		for (String module : modules) {
+			indexes.put(module, indexes.size());
+			if (!millis.containsKey(module)) {
+				unknown.add(module);
+			}
+		}
+		moduleMillis = new long[modules.size()];
+		upstreamCounts = new int[modules.size()];
+		List<List<Integer>> downstreamLists = new ArrayList<List<Integer>>();
+		for (int i = 0; i < modules.size(); i++) {
+			downstreamLists.add(new ArrayList<Integer>());
+		}
+		for (int i = 0; i < modules.size(); i++) {
+			String module = modules.get(i);
+			moduleMillis[i] = getMillis(module);
+			for (String dependency : new HashSet<String>(getUpstream(module))) {
+				Integer dependencyIndex = indexes.get(dependency);
+				if (dependencyIndex != null && dependencyIndex != i) {
+					upstreamCounts[i]++;
+					downstreamLists.get(dependencyIndex).add(i);
+				}
+			}
+		}
+		downstream = new int[modules.size()][];
+		for (int i = 0; i < modules.size(); i++) {
+			List<Integer> list = downstreamLists.get(i);
+			downstream[i] = new int[list.size()];
+			for (int j = 0; j < list.size(); j++) {
+				downstream[i][j] = list.get(j);
+			}
+		}
+	}
+
+	/**
+	 * @return null when no module of the root project has a recorded time
+	 */
+	@Nullable
+	public static ReactorSimulator create(Project project, MavenProject root, @Nullable String goals) {
+		MavenProjectsManager projectsManager = MavenProjectsManager.getInstance(project);
+		List<MavenProject> projects = new ArrayList<MavenProject>();
+		for (MavenProject mavenProject : projectsManager.getProjects()) {
+			if (RootProjectResolver.isInReactor(projectsManager, mavenProject, root)) {
+				projects.add(mavenProject);
+			}
+		}
+
+		Set<MavenProject> reactor = new HashSet<MavenProject>(projects);
+		Map<String, List<String>> upstream = new HashMap<String, List<String>>();
+		for (MavenProject mavenProject : projects) {
+			Set<String> list = new LinkedHashSet<String>();
+			for (MavenArtifact dependency : mavenProject.getDependencies()) {
+				addUpstream(list, reactor, projectsManager.findProject(dependency), mavenProject);
+			}
+			MavenId parentId = mavenProject.getParentId();
+			if (parentId != null) {
+				addUpstream(list, reactor, projectsManager.findProject(parentId), mavenProject);
+			}
+			upstream.put(getName(mavenProject), new ArrayList<String>(list));
+		}
+		List<String> modules = sort(projects, upstream);
+
+		Map<String, Long> millis = getModuleMillis(projects, PathUtil.getCanonicalPath(root.getDirectory()), goals);
+		if (millis.isEmpty()) {
+			return null;
+		}
+		return new ReactorSimulator(modules, millis, upstream);
+	}
+
+	private static void addUpstream(Set<String> list, Set<MavenProject> reactor, @Nullable MavenProject from,
+			MavenProject to) {
+		if (from != null && from != to && reactor.contains(from)) {
+			list.add(getName(from));
+		}
+	}
+
+	private static String getName(MavenProject mavenProject) {
+		MavenId mavenId = mavenProject.getMavenId();
+		return mavenId.getGroupId() + ":" + mavenId.getArtifactId();
+	}
+
+	/** stable topological sort, keeps the order of MavenProjectsManager where possible */
+	private static List<String> sort(List<MavenProject> projects, Map<String, List<String>> upstream) {
+		List<String> names = new ArrayList<String>();
+		Map<String, Integer> indexes = new HashMap<String, Integer>();
+		for (MavenProject mavenProject : projects) {
+			String name = getName(mavenProject);
+			if (!indexes.containsKey(name)) {
+				indexes.put(name, names.size());
+				names.add(name);
+			}
+		}
+		int[] upstreamCounts = new int[names.size()];
+		Map<String, List<Integer>> downstream = new HashMap<String, List<Integer>>();
+		for (int i = 0; i < names.size(); i++) {
+			for (String dependency : upstream.get(names.get(i))) {
+				List<Integer> list = downstream.get(dependency);
+				if (list == null) {
+					list = new ArrayList<Integer>();
+					downstream.put(dependency, list);
+				}
+				list.add(i);
+				upstreamCounts[i]++;
+			}
+		}
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < names.size(); i++) {
+			if (upstreamCounts[i] == 0) {
+				ready.add(i);
+			}
+		}
+		List<String> result = new ArrayList<String>(names.size());
+		boolean[] done = new boolean[names.size()];
+		while (!ready.isEmpty()) {
+			int i = ready.poll();
+			result.add(names.get(i));
+			done[i] = true;
+			List<Integer> list = downstream.get(names.get(i));
+			if (list != null) {
+				for (int dependent : list) {
+					if (--upstreamCounts[dependent] == 0) {
+						ready.add(dependent);
+					}
+				}
+			}
+		}
+		// cycle, Maven would refuse to build it anyway
+		for (int i = 0; i < names.size(); i++) {
+			if (!done[i]) {
+				result.add(names.get(i));
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Newest recorded time of each module, runs of the same goals are preferred. The reactor summary is used when
+	 * present, mojo times do not add up in parallel builds.
+	 */
+	private static Map<String, Long> getModuleMillis(List<MavenProject> projects, String workingDirectory,
+			@Nullable String goals) {
+		Map<String, String> namesByDisplayName = new HashMap<String, String>();
+		// mojo times only know the artifactId, null = ambiguous
+		Map<String, String> namesByArtifactId = new HashMap<String, String>();
+		for (MavenProject mavenProject : projects) {
+			namesByDisplayName.put(mavenProject.getDisplayName(), getName(mavenProject));
+			String artifactId = mavenProject.getMavenId().getArtifactId();
+			namesByArtifactId.put(artifactId, namesByArtifactId.containsKey(artifactId) ? null
+					: getName(mavenProject));
+		}
+		List<BuildProfile> sameGoals = new ArrayList<BuildProfile>();
+		List<BuildProfile> otherGoals = new ArrayList<BuildProfile>();
+		for (BuildProfile profile : BuildProfiles.getInstance().getProfiles()) {
+			String key = profile.getKey();
+			int separator = key.indexOf('|');
+			if (separator < 0 || !PathUtil.getCanonicalPath(key.substring(0, separator)).equals(workingDirectory)) {
+				continue;
+			}
+			if (profile.getGoals().equals(goals)) {
+				sameGoals.add(profile);
+			} else {
+				otherGoals.add(profile);
+			}
+		}
+		sameGoals.addAll(otherGoals);
+
+		Map<String, Long> result = new HashMap<String, Long>();
+		for (BuildProfile profile : sameGoals) {
+			for (Map.Entry<String, Long> entry : profile.getReactorSummary().entrySet()) {
+				String module = namesByDisplayName.get(entry.getKey());
+				if (module != null && !result.containsKey(module)) {
+					result.put(module, entry.getValue());
+				}
+			}
+			for (Map.Entry<String, Long> entry : profile.getModuleMillis().entrySet()) {
+				String module = namesByArtifactId.get(entry.getKey());
+				if (module != null && !result.containsKey(module)) {
+					result.put(module, entry.getValue());
+				}
+			}
+		}
+		return result;
+	}
+
+	public List<String> getModules() {
+		return modules;
+	}
+
+	/** modules without a recorded time, counted as 0 */
+	public Set<String> getUnknownModules() {
+		return unknown;
+	}
+
+	public long getMillis(String module) {
+		Long value = millis.get(module);
+		return value == null ? 0 : value;
+	}
+
+	/**
+	 * @return longest chain of dependent modules, upstream first
+	 */
+	public List<String> getCriticalPath() {
+		Map<String, Long> finish = new HashMap<String, Long>();
+		Map<String, String> previous = new HashMap<String, String>();
+		String last = null;
+		for (String module : modules) {
+			long start = 0;
+			for (String dependency : getUpstream(module)) {
+				Long dependencyFinish = finish.get(dependency);
+				if (dependencyFinish != null && dependencyFinish > start) {
+					start = dependencyFinish;
+					previous.put(module, dependency);
+				}
+			}
+			finish.put(module, start + getMillis(module));
+			if (last == null || finish.get(module) > finish.get(last)) {
+				last = module;
+			}
+		}
+		LinkedList<String> path = new LinkedList<String>();
+		for (String module = last; module != null; module = previous.get(module)) {
+			path.addFirst(module);
+		}
+		return path;
+	}
+
+	public long getCriticalPathMillis() {
+		long sum = 0;
+		for (String module : getCriticalPath()) {
+			sum += getMillis(module);
+		}
+		return sum;
+	}
+
+	/**
+	 * @return simulated wall-clock time of the reactor with the given number of threads
+	 */
+	public long simulate(int threads) {
+		int[] waitingFor = upstreamCounts.clone();
+		// reactor indexes of modules whose upstream modules are done
+		PriorityQueue<Integer> ready = new PriorityQueue<Integer>();
+		for (int i = 0; i < waitingFor.length; i++) {
+			if (waitingFor[i] == 0) {
+				ready.add(i);
+			}
+		}
+		// finish times of running modules
+		PriorityQueue<Running> running = new PriorityQueue<Running>();
+		long now = 0;
+		while (true) {
+			while (running.size() < threads && !ready.isEmpty()) {
+				int module = ready.poll();
+				running.add(new Running(module, now + moduleMillis[module]));
+			}
+			Running next = running.poll();
+			if (next == null) {
+				// done, or unsatisfiable dependencies
+				break;
+			}
+			now = next.finish;
+			for (int dependent : downstream[next.module]) {
+				if (--waitingFor[dependent] == 0) {
+					ready.add(dependent);
+				}
+			}
+		}
+		return now;
+	}
+
+	/**
+	 * @return simulated times indexed by thread count, 1..maxThreads
+	 */
+	public long[] simulateUpTo(int maxThreads) {
+		long[] times = new long[maxThreads + 1];
+		for (int threads = 1; threads <= maxThreads; threads++) {
+			times[threads] = simulate(threads);
+		}
+		return times;
+	}
+
+	private List<String> getUpstream(String module) {
+		List<String> list = upstream.get(module);
+		return list == null ? Collections.<String> emptyList() : list;
+	}
+
+	/**
+	 * @return smallest thread count which is not noticeably slower than any higher one up to maxThreads
+	 */
+	public int recommendThreads(int maxThreads) {
+		return recommendThreads(simulateUpTo(maxThreads));
+	}
+
+	/**
+	 * @param times result of {@link #simulateUpTo(int)}
+	 */
+	public static int recommendThreads(long[] times) {
+		long best = Long.MAX_VALUE;
+		for (int threads = 1; threads < times.length; threads++) {
+			best = Math.min(best, times[threads]);
+		}
+		for (int threads = 1; threads < times.length; threads++) {
+			if (times[threads] <= best * RECOMMENDATION_TOLERANCE) {
+				return threads;
+			}
+		}
+		return times.length - 1;
+	}
+
+	private static class Running implements Comparable<Running> {
+		private final int module;
+		private final long finish;
+
+		private Running(int module, long finish) {
+			this.module = module;
+			this.finish = finish;
+		}
+
+		@Override
+		public int compareTo(Running o) {
+			return Long.valueOf(finish).compareTo(o.finish);
+		}
+	}
+}
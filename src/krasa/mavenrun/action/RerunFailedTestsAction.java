@@ -0,0 +1,75 @@
+package krasa.mavenrun.action;
+
+import java.io.File;
+import java.util.List;
+import java.util.SortedSet;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.actionSystem.impl.SimpleDataContext;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * Runs tests which failed in the last surefire/failsafe run of the module, routed the same way as selected tests.
+ *
+ * @author Vojtech Krasa
+ */
+public class RerunFailedTestsAction extends RunTestFileAction {
+
+	public RerunFailedTestsAction() {
+		super("Rerun Failed Tests", "Rerun tests which failed in the last Maven run",
+				AllIcons.RunConfigurations.RerunFailedTests);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		final Project project = e.getProject();
+		final MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		if (project == null || mavenProject == null) {
+			return;
+		}
+		new Task.Backgroundable(project, "Reading test reports of " + mavenProject.getDisplayName(), true) {
+			private SortedSet<String> failedTests;
+			private SortedSet<String> failedIntegrationTests;
+
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				failedTests = SurefireReports.findFailedTests(getReports(mavenProject, "surefire-reports"));
+				failedIntegrationTests = SurefireReports.findFailedTests(getReports(mavenProject, "failsafe-reports"));
+			}
+
+			@Override
+			public void onSuccess() {
+				if (failedTests.isEmpty() && failedIntegrationTests.isEmpty()) {
+					Messages.showInfoMessage(project, "No failed tests in the last reports", "Rerun Failed Tests");
+					return;
+				}
+				// integration tests need the pre-/post-integration-test phases
+				TestBatch batch = TestBatch.fromTests(project, mavenProject, failedTests, failedIntegrationTests);
+				runBatch(project, SimpleDataContext.getProjectContext(project), batch);
+			}
+		}.queue();
+	}
+
+	private static List<File> getReports(MavenProject mavenProject, String reportsDirectory) {
+		return SurefireReports.findReports(new File(mavenProject.getBuildDirectory(), reportsDirectory));
+	}
+
+	@Override
+	public void update(AnActionEvent e) {
+		Presentation p = e.getPresentation();
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		p.setVisible(mavenProject != null);
+		p.setEnabled(mavenProject != null
+				&& (new File(mavenProject.getBuildDirectory(), "surefire-reports").isDirectory() || new File(
+						mavenProject.getBuildDirectory(), "failsafe-reports").isDirectory()));
+	}
+}
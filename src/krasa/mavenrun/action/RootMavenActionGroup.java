@@ -1,13 +1,19 @@
 package krasa.mavenrun.action;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-import org.jetbrains.idea.maven.model.MavenId;
+import krasa.mavenrun.ApplicationComponent;
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.model.Goal;
+
 import org.jetbrains.idea.maven.project.MavenProject;
-import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
 
+import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.project.Project;
 
 @SuppressWarnings("ComponentNotRegistered")
 public class RootMavenActionGroup extends MainMavenActionGroup {
@@ -17,27 +23,27 @@ public class RootMavenActionGroup extends MainMavenActionGroup {
 		if (mavenProject == null) {
 			return null;
 		}
-		MavenProjectsManager projectsManager = MavenActionUtil.getProjectsManager(dataContext);
-		List<MavenProject> rootProjects = projectsManager.getRootProjects();
+		RootProjectResolver resolver = MavenHelperProjectComponent.getInstance(MavenActionUtil.getProject(dataContext)).getRootProjectResolver();
+		return resolver.getRootProject(mavenProject);
+	}
 
-		MavenProject root = null;
-		if (rootProjects.contains(mavenProject)) {
-			root = mavenProject;
-		} else {
-			MavenId parentId = mavenProject.getParentId();
-			while (parentId != null) {
-				mavenProject = projectsManager.findProject(parentId);
-				if (mavenProject == null) {
-					break;
-				}
-				if (rootProjects.contains(mavenProject)) {
-					root = mavenProject;
-					break;
-				}
-				parentId = mavenProject.getParentId();
-			}
+	@Override
+	protected AnAction[] buildActions(Project project, MavenProject mavenProject) {
+		List<AnAction> result = new ArrayList<AnAction>(Arrays.asList(super.buildActions(project, mavenProject)));
+		MavenActionGroup affected = new MavenActionGroup("Affected Modules", true);
+		affected.getTemplatePresentation().setDescription("Run goal for locally changed modules and their dependents");
+		for (Goal goal : ApplicationComponent.getInstance().getState().getGoals().getGoals()) {
+			affected.add(new RunAffectedModulesGoalAction(goal.getCommandLine(), getRunIcon()));
 		}
-
-		return root;
+		MavenActionGroup parallel = new MavenActionGroup("Parallel Build", true);
+		parallel.getTemplatePresentation().setDescription("Run goal with -T simulated from previous builds");
+		for (Goal goal : ApplicationComponent.getInstance().getState().getGoals().getGoals()) {
+			parallel.add(new RunParallelGoalAction(goal.getCommandLine(), getRunIcon()));
+		}
+		parallel.addSeparator();
+		parallel.add(new ShowReactorAnalysisAction());
+		result.add(0, affected);
+		result.add(1, parallel);
+		return result.toArray(new AnAction[result.size()]);
 	}
 }
@@ -0,0 +1,90 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenId;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.openapi.project.Project;
+
+/**
+ * Module -> root project mapping, computed once per import.
+ *
+ * @author Vojtech Krasa
+ */
+public class RootProjectResolver {
+	private final Project project;
+	/** null value = the module has no root project */
+	private Map<MavenProject, MavenProject> rootByModule;
+	private Set<MavenProject> rootProjects;
+
+	public RootProjectResolver(Project project) {
+		this.project = project;
+	}
+
+	@Nullable
+	public synchronized MavenProject getRootProject(MavenProject mavenProject) {
+		MavenProjectsManager projectsManager = MavenProjectsManager.getInstance(project);
+		if (rootByModule == null) {
+			rootByModule = new HashMap<MavenProject, MavenProject>();
+			rootProjects = new HashSet<MavenProject>(projectsManager.getRootProjects());
+			for (MavenProject module : projectsManager.getProjects()) {
+				resolve(projectsManager, module);
+			}
+		}
+		if (!rootByModule.containsKey(mavenProject)) {
+			resolve(projectsManager, mavenProject);
+		}
+		return rootByModule.get(mavenProject);
+	}
+
+	private void resolve(MavenProjectsManager projectsManager, MavenProject mavenProject) {
+		List<MavenProject> path = new ArrayList<MavenProject>();
+		MavenProject root = null;
+		MavenProject current = mavenProject;
+		while (current != null) {
+			if (rootByModule.containsKey(current)) {
+				root = rootByModule.get(current);
+				break;
+			}
+			if (path.contains(current)) {
+				break;
+			}
+			path.add(current);
+			if (rootProjects.contains(current)) {
+				root = current;
+				break;
+			}
+			MavenId parentId = current.getParentId();
+			current = parentId == null ? null : projectsManager.findProject(parentId);
+		}
+		for (MavenProject module : path) {
+			rootByModule.put(module, root);
+		}
+	}
+
+	/**
+	 * Reactor membership follows the aggregator/module relation, the parent chain may lead elsewhere.
+	 *
+	 * @return true when root aggregates the project, directly or through other aggregators, or is the project itself
+	 */
+	public static boolean isInReactor(MavenProjectsManager projectsManager, MavenProject mavenProject,
+			MavenProject root) {
+		Set<MavenProject> visited = new HashSet<MavenProject>();
+		MavenProject current = mavenProject;
+		while (current != null && visited.add(current)) {
+			if (current == root) {
+				return true;
+			}
+			current = projectsManager.findAggregator(current);
+		}
+		return false;
+	}
+
+	public synchronized void invalidate() {
+		rootByModule = null;
+		rootProjects = null;
+	}
+}
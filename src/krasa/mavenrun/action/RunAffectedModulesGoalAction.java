@@ -0,0 +1,67 @@
+package krasa.mavenrun.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.*;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+
+/**
+ * Runs the goal in the root project, only for modules with local changes and their dependents.
+ *
+ * @author Vojtech Krasa
+ */
+public class RunAffectedModulesGoalAction extends RunGoalAction {
+
+	public RunAffectedModulesGoalAction(String goal, Icon icon) {
+		super(goal, icon);
+		getTemplatePresentation().setDescription("Run " + goal + " for changed modules and their dependents");
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		Project project = e.getProject();
+		if (mavenProject == null || project == null) {
+			return;
+		}
+		MavenProject root = MavenHelperProjectComponent.getInstance(project).getRootProjectResolver().getRootProject(
+				mavenProject);
+		if (root == null) {
+			root = mavenProject;
+		}
+		List<MavenProject> affected = new AffectedModules(project).compute(root);
+		if (affected.isEmpty()) {
+			Messages.showInfoMessage(project, "No changed modules", "Run Affected Modules");
+			return;
+		}
+
+		List<String> modules = new ArrayList<String>();
+		for (MavenProject module : affected) {
+			String path = FileUtil.getRelativePath(root.getDirectory(), module.getDirectory(), '/');
+			modules.add(path == null ? "." : path);
+		}
+		List<String> goals = new ArrayList<String>();
+		goals.add("-pl");
+		goals.add(StringUtils.join(modules, ","));
+		goals.addAll(goalsToRun);
+
+		final DataContext context = e.getDataContext();
+		MavenRunnerParameters params = new MavenRunnerParameters(true, root.getDirectory(), goals,
+				MavenProjectsManager.getInstance(project).getExplicitProfiles());
+		run(context, params);
+	}
+}
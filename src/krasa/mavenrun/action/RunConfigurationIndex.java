@@ -0,0 +1,89 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+import org.jetbrains.idea.maven.execution.MavenRunConfiguration;
+import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.PathUtil;
+
+/**
+ * Maven run configurations by canonical working directory, kept up to date by RunManager listeners.
+ *
+ * @author Vojtech Krasa
+ */
+public class RunConfigurationIndex {
+	private final Project project;
+	private Map<String, List<RunnerAndConfigurationSettings>> byDirectory;
+	private final Map<RunnerAndConfigurationSettings, String> directories = new HashMap<RunnerAndConfigurationSettings, String>();
+
+	public RunConfigurationIndex(Project project) {
+		this.project = project;
+	}
+
+	public synchronized List<RunnerAndConfigurationSettings> getConfigurations(String canonicalDirectory) {
+		if (byDirectory == null) {
+			build();
+		}
+		List<RunnerAndConfigurationSettings> result = byDirectory.get(canonicalDirectory);
+		return result == null ? Collections.<RunnerAndConfigurationSettings> emptyList()
+				: new ArrayList<RunnerAndConfigurationSettings>(result);
+	}
+
+	private void build() {
+		byDirectory = new HashMap<String, List<RunnerAndConfigurationSettings>>();
+		directories.clear();
+		for (RunnerAndConfigurationSettings settings : RunManager.getInstance(project).getConfigurationSettings(
+				MavenRunConfigurationType.getInstance())) {
+			add(settings);
+		}
+	}
+
+	public synchronized void added(RunnerAndConfigurationSettings settings) {
+		if (byDirectory != null) {
+			add(settings);
+		}
+	}
+
+	public synchronized void removed(RunnerAndConfigurationSettings settings) {
+		if (byDirectory != null) {
+			remove(settings);
+		}
+	}
+
+	public synchronized void changed(RunnerAndConfigurationSettings settings) {
+		if (byDirectory != null) {
+			remove(settings);
+			add(settings);
+		}
+	}
+
+	private void add(RunnerAndConfigurationSettings settings) {
+		if (!(settings.getConfiguration() instanceof MavenRunConfiguration)) {
+			return;
+		}
+		MavenRunConfiguration configuration = (MavenRunConfiguration) settings.getConfiguration();
+		String directory = PathUtil.getCanonicalPath(configuration.getRunnerParameters().getWorkingDirPath());
+		List<RunnerAndConfigurationSettings> list = byDirectory.get(directory);
+		if (list == null) {
+			list = new ArrayList<RunnerAndConfigurationSettings>(1);
+			byDirectory.put(directory, list);
+		}
+		list.add(settings);
+		directories.put(settings, directory);
+	}
+
+	private void remove(RunnerAndConfigurationSettings settings) {
+		String directory = directories.remove(settings);
+		if (directory != null) {
+			List<RunnerAndConfigurationSettings> list = byDirectory.get(directory);
+			list.remove(settings);
+			if (list.isEmpty()) {
+				byDirectory.remove(directory);
+			}
+		}
+	}
+}
@@ -5,10 +5,11 @@ import java.util.List;
 
 import javax.swing.*;
 
+import krasa.mavenrun.ApplicationComponent;
 import krasa.mavenrun.model.Goal;
 
 import org.apache.commons.lang.StringUtils;
-import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
+import org.jetbrains.annotations.Nullable;
 import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
 import org.jetbrains.idea.maven.project.*;
 import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
@@ -18,6 +19,8 @@ import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.actionSystem.Presentation;
 import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.io.FileUtil;
 
 public class RunGoalAction extends AnAction implements DumbAware {
 
@@ -71,7 +74,25 @@ public class RunGoalAction extends AnAction implements DumbAware {
 	}
 
 	protected void run(DataContext context, MavenRunnerParameters params) {
-		MavenRunConfigurationType.runConfiguration(MavenActionUtil.getProject(context), params, null);
+		Project project = MavenActionUtil.getProject(context);
+		MavenProject mavenProject = findProject(MavenProjectsManager.getInstance(project), params.getWorkingDirPath());
+		if (mavenProject != null && ApplicationComponent.getInstance().getState().isUseBuildCache()
+				&& BuildCache.isCacheable(params.getGoals()) && BuildCache.isCacheable(mavenProject)) {
+			BuildCache.getInstance().run(project, mavenProject, params);
+		} else {
+			MavenDaemon.runConfiguration(project, params);
+		}
+	}
+
+	/** the project the goals run in, not necessarily the selected one */
+	@Nullable
+	private static MavenProject findProject(MavenProjectsManager projectsManager, String workingDirectory) {
+		for (MavenProject mavenProject : projectsManager.getProjects()) {
+			if (FileUtil.pathsEqual(mavenProject.getDirectory(), workingDirectory)) {
+				return mavenProject;
+			}
+		}
+		return null;
 	}
 
 	@Override
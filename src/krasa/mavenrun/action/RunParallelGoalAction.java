@@ -0,0 +1,89 @@
+package krasa.mavenrun.action;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.swing.*;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.text.StringUtil;
+
+/**
+ * Runs the goal in the root project with -T recommended by {@link ReactorSimulator}, or -T 1C when no module times
+ * are recorded yet.
+ *
+ * @author Vojtech Krasa
+ */
+public class RunParallelGoalAction extends RunGoalAction {
+	public static final String NOTIFICATION_GROUP = "Maven Helper - Parallel Build";
+
+	public RunParallelGoalAction(String goal, Icon icon) {
+		super(goal, icon);
+		getTemplatePresentation().setDescription("Run " + goal + " with thread count simulated from previous builds");
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		final Project project = e.getProject();
+		if (mavenProject == null || project == null) {
+			return;
+		}
+		MavenProject root = MavenHelperProjectComponent.getInstance(project).getRootProjectResolver().getRootProject(
+				mavenProject);
+		if (root == null) {
+			root = mavenProject;
+		}
+
+		final MavenProject reactorRoot = root;
+		new Task.Backgroundable(project, "Simulating reactor of " + root.getDisplayName(), true) {
+			private String threads = "1C";
+			private String message;
+
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				ReactorSimulator simulator = ReactorSimulator.create(project, reactorRoot, StringUtils.join(goalsToRun,
+						" "));
+				if (simulator == null) {
+					message = "No recorded module times, using -T 1C";
+				} else {
+					long[] times = simulator.simulateUpTo(Runtime.getRuntime().availableProcessors());
+					int recommended = ReactorSimulator.recommendThreads(times);
+					threads = String.valueOf(recommended);
+					message = "-T " + recommended + ", simulated " + StringUtil.formatDuration(times[recommended])
+							+ " instead of " + StringUtil.formatDuration(times[1]) + ", critical path "
+							+ StringUtil.formatDuration(simulator.getCriticalPathMillis());
+				}
+			}
+
+			@Override
+			public void onSuccess() {
+				Notifications.Bus.notify(new Notification(NOTIFICATION_GROUP, "Parallel Build "
+						+ reactorRoot.getDisplayName(), message, NotificationType.INFORMATION), project);
+
+				List<String> goals = new ArrayList<String>();
+				goals.add("-T");
+				goals.add(threads);
+				goals.addAll(goalsToRun);
+				MavenRunnerParameters params = new MavenRunnerParameters(true, reactorRoot.getDirectory(), goals,
+						MavenProjectsManager.getInstance(project).getExplicitProfiles());
+				MavenDaemon.runConfiguration(project, params);
+			}
+		}.queue();
+	}
+}
@@ -1,21 +1,23 @@
 package krasa.mavenrun.action;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 
 import javax.swing.*;
 
-import krasa.mavenrun.analyzer.ComparableVersion;
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.action.fasttest.TestTimings;
+import krasa.mavenrun.diagnostics.Metrics;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.maven.shared.utils.io.MatchPatterns;
-import org.jdom.Element;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
-import org.jetbrains.idea.maven.execution.MavenRunConfigurationType;
 import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
-import org.jetbrains.idea.maven.model.MavenPlugin;
 import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
 import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
 
 import com.intellij.execution.RunnerAndConfigurationSettings;
@@ -26,14 +28,18 @@ import com.intellij.openapi.actionSystem.*;
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.DumbAwareAction;
 import com.intellij.openapi.project.DumbService;
+import com.intellij.openapi.project.Project;
 import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.Key;
 import com.intellij.openapi.vfs.VirtualFile;
-import com.intellij.psi.PsiFile;
-import com.intellij.psi.PsiJavaFile;
+import com.intellij.psi.*;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.psi.util.PsiTreeUtil;
 import icons.MavenIcons;
 
 public class RunTestFileAction extends DumbAwareAction {
 	private final Logger LOG = Logger.getInstance("#" + getClass().getCanonicalName());
+	private static final Key<TestTarget> TEST_TARGET = Key.create("MavenHelper.TestTarget");
 
 	public RunTestFileAction() {
 		super("Test file", "Run current File with Maven", MavenIcons.MavenLogo);
@@ -44,6 +50,11 @@ public class RunTestFileAction extends DumbAwareAction {
 	}
 
 	public void actionPerformed(AnActionEvent e) {
+		Project project = e.getProject();
+		if (project != null && getBatchSize(project, e.getDataContext()) > 1) {
+			runBatch(project, e.getDataContext());
+			return;
+		}
 		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
 		if (mavenProject != null) {
 
@@ -62,28 +73,61 @@ public class RunTestFileAction extends DumbAwareAction {
 		}
 	}
 
+	private void runBatch(Project project, DataContext context) {
+		TestBatch batch = TestBatch.fromSelection(project, context);
+		if (batch.isEmpty()) {
+			Messages.showWarningDialog(project, "No tests selected", "Maven Test File");
+			return;
+		}
+		runBatch(project, context, batch);
+	}
+
+	protected void runBatch(Project project, DataContext context, TestBatch batch) {
+		Collection<String> profiles = MavenProjectsManager.getInstance(project).getExplicitProfiles();
+		for (MavenRunnerParameters params : batch.getRunnerParameters(getExtraGoals(), profiles)) {
+			run(context, params);
+		}
+	}
+
+	/**
+	 * @return number of selected classes/methods or test files, a batch is run when more than 1
+	 */
+	private static int getBatchSize(Project project, DataContext dataContext) {
+		PsiElement[] elements = LangDataKeys.PSI_ELEMENT_ARRAY.getData(dataContext);
+		if (elements != null && elements.length > 1) {
+			return elements.length;
+		}
+		return TestBatch.countSelectedTestFiles(project, dataContext);
+	}
+
+	/** appended after the lifecycle goals */
+	protected List<String> getExtraGoals() {
+		return Collections.emptyList();
+	}
+
 	protected void run(DataContext context, MavenRunnerParameters params) {
-		MavenRunConfigurationType.runConfiguration(MavenActionUtil.getProject(context), params, null);
+		MavenDaemon.runConfiguration(MavenActionUtil.getProject(context), params,
+				TestTimings.mavenRunListener(params.getGoals()));
 	}
 
 	protected List<String> getGoals(AnActionEvent e, PsiJavaFile psiFile, MavenProject mavenProject) {
 		List<String> goals = new ArrayList<String>();
-		boolean skipTests = isSkipTests(mavenProject);
+		SurefireRules rules = MavenHelperProjectComponent.getInstance(psiFile.getProject()).getSurefireRules(
+				mavenProject);
 		// so many possibilities...
-		if (skipTests || isExcludedFromSurefire(psiFile, mavenProject)) {
-			MavenPlugin failsafePlugin = mavenProject.findPlugin("org.apache.maven.plugins", "maven-failsafe-plugin");
-			if (failsafePlugin != null) {
-                addFailSafeParameters(e, psiFile, goals, failsafePlugin);
-            } else {
-                addSurefireParameters(e, psiFile, goals);
-            }
+		if (!rules.isRunBySurefire(getPsiFilePath(psiFile, rules))) {
+			if (rules.hasFailsafe()) {
+				addFailSafeParameters(e, psiFile, goals, rules);
+			} else {
+				addSurefireParameters(e, psiFile, goals);
+			}
 			goals.add("verify");
 		} else {
 			addSurefireParameters(e, psiFile, goals);
 			goals.add("test-compile");
 			goals.add("surefire:test");
 		}
-
+		goals.addAll(getExtraGoals());
 		return goals;
 	}
 
@@ -91,42 +135,12 @@ public class RunTestFileAction extends DumbAwareAction {
 		goals.add("-Dtest=" + getTestArgument(e, psiFile));
 	}
 
-	private void addFailSafeParameters(AnActionEvent e, PsiJavaFile psiFile, List<String> goals, MavenPlugin mavenProjectPlugin) {
-		ComparableVersion version = new ComparableVersion(mavenProjectPlugin.getVersion());
-		ComparableVersion minimumForMethodTest = new ComparableVersion("2.7.3");
-		if (minimumForMethodTest.compareTo(version) == 1) {
-            goals.add("-Dit.test=" + getTestArgumentWithoutMethod(e, psiFile));
-        } else {
-            goals.add("-Dit.test=" + getTestArgument(e, psiFile));
-        }
-	}
-
-	private boolean isExcludedFromSurefire(PsiJavaFile psiFile, MavenProject mavenProject) {
-		boolean excluded = false;
-		try {
-			Element pluginConfiguration = mavenProject.getPluginConfiguration("org.apache.maven.plugins",
-					"maven-surefire-plugin");
-			excluded = false;
-			String fullName = null;
-			if (pluginConfiguration != null) {
-				Element excludes = pluginConfiguration.getChild("excludes");
-				if (excludes != null) {
-					List<Element> exclude = excludes.getChildren("exclude");
-					for (Element element : exclude) {
-						if (fullName == null) {
-							fullName = getPsiFilePath(psiFile);
-						}
-						excluded = matchClassRegexPatter(fullName, element.getText());
-						if (excluded) {
-							break;
-						}
-					}
-				}
-			}
-		} catch (Exception e) {
-			LOG.warn(e);
+	private void addFailSafeParameters(AnActionEvent e, PsiJavaFile psiFile, List<String> goals, SurefireRules rules) {
+		if (rules.isFailsafeMethodSupported()) {
+			goals.add("-Dit.test=" + getTestArgument(e, psiFile));
+		} else {
+			goals.add("-Dit.test=" + getTestArgumentWithoutMethod(e, psiFile));
 		}
-		return excluded;
 	}
 
 	protected static boolean matchClassRegexPatter(String testClassFile, String classPattern) {
@@ -134,36 +148,26 @@ public class RunTestFileAction extends DumbAwareAction {
 	}
 
 	@NotNull
-	private String getPsiFilePath(PsiJavaFile psiFile) {
+	private String getPsiFilePath(PsiJavaFile psiFile, SurefireRules rules) {
+		VirtualFile virtualFile = psiFile.getVirtualFile();
+		if (virtualFile != null) {
+			String relativePath = rules.getRelativeTestPath(virtualFile.getPath());
+			if (relativePath != null) {
+				return relativePath;
+			}
+		}
 		String packageName = psiFile.getPackageName();
 		String fullName;
 		if (packageName.isEmpty()) {
 			fullName = psiFile.getName();
 		} else {
-			fullName = packageName.replace(".", "/") + "/" + psiFile.getVirtualFile().getName();
+			fullName = packageName.replace(".", "/") + "/" + psiFile.getName();
 		}
 		return fullName;
 	}
 
-	private boolean isSkipTests(MavenProject mavenProject) {
-		Element pluginConfiguration = mavenProject.getPluginConfiguration("org.apache.maven.plugins",
-				"maven-surefire-plugin");
-		boolean skipTests = false;
-		if (pluginConfiguration != null) {
-			Element skip;
-			if ((skip = pluginConfiguration.getChild("skip")) != null) {
-				skipTests = Boolean.parseBoolean(skip.getText());
-			} else if ((skip = pluginConfiguration.getChild("skipTests")) != null) {
-				skipTests = Boolean.parseBoolean(skip.getText());
-			}
-		}
-		return skipTests;
-	}
-
 	protected String getTestArgument(AnActionEvent e, PsiJavaFile psiFile) {
-		final ConfigurationContext context = ConfigurationContext.getFromContext(e.getDataContext());
-		RunnerAndConfigurationSettings configuration = context.getConfiguration();
-		String classAndMethod = configuration.getName().replace(".", "#");
+		String classAndMethod = getTestTarget(e).getName().replace(".", "#");
 
 		String result;
 		String packageName = psiFile.getPackageName();
@@ -181,6 +185,15 @@ public class RunTestFileAction extends DumbAwareAction {
 
 	@Override
 	public void update(AnActionEvent e) {
+		long start = Metrics.TEST_FILE_UPDATE.start();
+		try {
+			doUpdate(e);
+		} finally {
+			Metrics.TEST_FILE_UPDATE.stop(start);
+		}
+	}
+
+	private void doUpdate(AnActionEvent e) {
 		super.update(e);
 		if (DumbService.isDumb(getEventProject(e))) {
 			Presentation p = e.getPresentation();
@@ -188,22 +201,71 @@ public class RunTestFileAction extends DumbAwareAction {
 			return;
 		}
 
-		final ConfigurationContext context = ConfigurationContext.getFromContext(e.getDataContext());
-		RunnerAndConfigurationSettings configuration = context.getConfiguration();
-
-		boolean isTest = configuration != null;
-		boolean available = isAvailable(e);
+		Presentation p = e.getPresentation();
+		Project project = getEventProject(e);
+		int batchSize = project == null ? 0 : getBatchSize(project, e.getDataContext());
+		if (batchSize > 1) {
+			PsiElement[] elements = LangDataKeys.PSI_ELEMENT_ARRAY.getData(e.getDataContext());
+			p.setEnabledAndVisible(true);
+			p.setText(getText(batchSize + (elements != null && elements.length > 1 ? " Tests" : " Test Files")));
+			return;
+		}
 		boolean visible = isVisible(e);
+		if (!visible) {
+			p.setVisible(false);
+			return;
+		}
+		boolean available = isAvailable(e);
+		TestTarget testTarget = getTestTarget(e);
+		boolean isTest = testTarget.isTest();
 
-		Presentation p = e.getPresentation();
 		p.setEnabled(isTest && available);
-		p.setVisible(isTest && visible);
-		if (isTest && available && visible) {
-			String s = BaseRunConfigurationAction.suggestRunActionName((LocatableConfiguration) configuration.getConfiguration());
-			p.setText(getText(s));
+		p.setVisible(isTest);
+		if (isTest && available) {
+			p.setText(getText(testTarget.getActionName()));
 		}
 	}
 
+	/**
+	 * Run configuration producers are expensive, so the result is cached on the method/class at caret until the next
+	 * PSI change.
+	 */
+	@NotNull
+	protected TestTarget getTestTarget(AnActionEvent e) {
+		final ConfigurationContext context = ConfigurationContext.getFromContext(e.getDataContext());
+		PsiElement element = getCacheHolder(context.getPsiLocation());
+		long modificationCount = -1;
+		if (element != null) {
+			modificationCount = PsiModificationTracker.SERVICE.getInstance(element.getProject()).getModificationCount();
+			TestTarget cached = element.getUserData(TEST_TARGET);
+			if (cached != null && cached.modificationCount == modificationCount) {
+				return cached;
+			}
+		}
+
+		RunnerAndConfigurationSettings configuration = context.getConfiguration();
+		TestTarget testTarget;
+		if (configuration == null) {
+			testTarget = new TestTarget(modificationCount, null, null);
+		} else {
+			String actionName = BaseRunConfigurationAction.suggestRunActionName((LocatableConfiguration) configuration.getConfiguration());
+			testTarget = new TestTarget(modificationCount, configuration.getName(), actionName);
+		}
+		if (element != null) {
+			element.putUserData(TEST_TARGET, testTarget);
+		}
+		return testTarget;
+	}
+
+	@Nullable
+	private static PsiElement getCacheHolder(@Nullable PsiElement location) {
+		if (location == null) {
+			return null;
+		}
+		PsiElement member = PsiTreeUtil.getNonStrictParentOfType(location, PsiMethod.class, PsiClass.class);
+		return member != null ? member : location.getContainingFile();
+	}
+
 	protected String getText(String s) {
 		return "Test " + s;
 	}
@@ -222,4 +284,29 @@ public class RunTestFileAction extends DumbAwareAction {
 		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
 		return mavenProject != null;
 	}
+
+	protected static class TestTarget {
+		private final long modificationCount;
+		private final String name;
+		private final String actionName;
+
+		private TestTarget(long modificationCount, @Nullable String name, @Nullable String actionName) {
+			this.modificationCount = modificationCount;
+			this.name = name;
+			this.actionName = actionName;
+		}
+
+		public boolean isTest() {
+			return name != null;
+		}
+
+		/** name of the run configuration, e.g. {@code MyTest.testMethod} */
+		public String getName() {
+			return name;
+		}
+
+		public String getActionName() {
+			return actionName;
+		}
+	}
 }
@@ -0,0 +1,32 @@
+package krasa.mavenrun.action;
+
+import java.util.List;
+
+import krasa.mavenrun.gui.BuildProfileDialog;
+import krasa.mavenrun.model.BuildProfile;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * @author Vojtech Krasa
+ */
+public class ShowBuildProfilesAction extends DumbAwareAction {
+
+	public ShowBuildProfilesAction() {
+		super("Build Profiles...", "Mojo times of recent Maven runs", null);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		Project project = e.getProject();
+		List<BuildProfile> profiles = BuildProfiles.getInstance().getProfiles();
+		if (profiles.isEmpty()) {
+			Messages.showInfoMessage(project, "No Maven run recorded yet", "Build Profiles");
+			return;
+		}
+		new BuildProfileDialog(project, profiles).show();
+	}
+}
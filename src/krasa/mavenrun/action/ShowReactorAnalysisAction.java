@@ -0,0 +1,63 @@
+package krasa.mavenrun.action;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.gui.ReactorAnalysisDialog;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * @author Vojtech Krasa
+ */
+public class ShowReactorAnalysisAction extends DumbAwareAction {
+
+	public ShowReactorAnalysisAction() {
+		super("Reactor Critical Path...", "Modules serializing the build and simulated times for -T", null);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		final Project project = e.getProject();
+		if (mavenProject == null || project == null) {
+			return;
+		}
+		MavenProject root = MavenHelperProjectComponent.getInstance(project).getRootProjectResolver().getRootProject(
+				mavenProject);
+		if (root == null) {
+			root = mavenProject;
+		}
+		final MavenProject reactorRoot = root;
+		final int maxThreads = Math.max(Runtime.getRuntime().availableProcessors(), 2);
+		new Task.Backgroundable(project, "Simulating reactor of " + root.getDisplayName(), true) {
+			private ReactorSimulator simulator;
+			private long[] times;
+
+			@Override
+			public void run(@NotNull ProgressIndicator indicator) {
+				simulator = ReactorSimulator.create(project, reactorRoot, null);
+				if (simulator != null) {
+					times = simulator.simulateUpTo(maxThreads);
+				}
+			}
+
+			@Override
+			public void onSuccess() {
+				if (simulator == null) {
+					Messages.showInfoMessage(project, "No recorded module times, run a build of "
+							+ reactorRoot.getDisplayName() + " first", "Reactor Critical Path");
+					return;
+				}
+				new ReactorAnalysisDialog(project, reactorRoot.getDisplayName(), simulator, times).show();
+			}
+		}.queue();
+	}
+}
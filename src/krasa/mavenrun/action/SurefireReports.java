@@ -0,0 +1,237 @@
+package krasa.mavenrun.action;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+/**
+ * Reads surefire/failsafe {@code TEST-*.xml} reports with StAX, without building a DOM.
+ *
+ * @author Vojtech Krasa
+ */
+public class SurefireReports {
+	private static final Logger LOG = Logger.getInstance(SurefireReports.class);
+	private static final int MAX_THREADS = 4;
+
+	public static List<File> findReports(File reportsDirectory) {
+		List<File> result = new ArrayList<File>();
+		File[] files = reportsDirectory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				if (file.getName().startsWith("TEST-") && file.getName().endsWith(".xml")) {
+					result.add(file);
+				}
+			}
+		}
+		return result;
+	}
+
+	static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newInstance();
+		factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+		factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+		return factory;
+	}
+
+	/**
+	 * Reads only the attributes of the root {@code testsuite} element, the rest of the file is not parsed.
+	 */
+	@Nullable
+	public static Suite readSuite(File report) {
+		try {
+			InputStream in = new BufferedInputStream(new FileInputStream(report));
+			try {
+				XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+				try {
+					while (reader.hasNext()) {
+						if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+							return "testsuite".equals(reader.getLocalName()) ? readSuiteAttributes(reader) : null;
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			} finally {
+				in.close();
+			}
+		} catch (XMLStreamException e) {
+			LOG.info("invalid report " + report + ": " + e.getMessage());
+		} catch (IOException e) {
+			LOG.info("cannot read report " + report + ": " + e.getMessage());
+		}
+		return null;
+	}
+
+	/**
+	 * Failed and errored tests of all reports, files are parsed in parallel by a bounded pool and only the failing
+	 * names are kept in memory.
+	 *
+	 * @return {@code class#method}, sorted
+	 */
+	public static SortedSet<String> findFailedTests(List<File> reports) {
+		SortedSet<String> result = new TreeSet<String>();
+		if (reports.isEmpty()) {
+			return result;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_THREADS, reports.size()));
+		try {
+			List<Future<List<String>>> futures = new ArrayList<Future<List<String>>>();
+			for (final File report : reports) {
+				futures.add(executor.submit(new Callable<List<String>>() {
+					@Override
+					public List<String> call() throws Exception {
+						return readFailedTests(report);
+					}
+				}));
+			}
+			for (Future<List<String>> future : futures) {
+				result.addAll(future.get());
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			LOG.warn(e);
+		} finally {
+			executor.shutdownNow();
+		}
+		return result;
+	}
+
+	/**
+	 * Streams {@code testcase} elements, a test failed when it has a {@code failure} or {@code error} child.
+	 */
+	public static List<String> readFailedTests(File report) {
+		List<String> result = new ArrayList<String>();
+		try {
+			InputStream in = new BufferedInputStream(new FileInputStream(report));
+			try {
+				XMLStreamReader reader = createInputFactory().createXMLStreamReader(in);
+				try {
+					String testCase = null;
+					while (reader.hasNext()) {
+						int event = reader.next();
+						if (event == XMLStreamConstants.START_ELEMENT) {
+							String name = reader.getLocalName();
+							if ("testcase".equals(name)) {
+								testCase = getTestName(reader.getAttributeValue(null, "classname"),
+										reader.getAttributeValue(null, "name"));
+							} else if (testCase != null && ("failure".equals(name) || "error".equals(name))) {
+								result.add(testCase);
+								testCase = null;
+							}
+						} else if (event == XMLStreamConstants.END_ELEMENT && "testcase".equals(reader.getLocalName())) {
+							testCase = null;
+						}
+					}
+				} finally {
+					reader.close();
+				}
+			} finally {
+				in.close();
+			}
+		} catch (XMLStreamException e) {
+			LOG.info("invalid report " + report + ": " + e.getMessage());
+		} catch (IOException e) {
+			LOG.info("cannot read report " + report + ": " + e.getMessage());
+		}
+		return result;
+	}
+
+	/**
+	 * Parameters of parameterized/JUnit 5 tests are dropped, -Dtest selects the method by name.
+	 */
+	@Nullable
+	static String getTestName(@Nullable String className, @Nullable String methodName) {
+		if (className == null || className.isEmpty()) {
+			return null;
+		}
+		if (methodName == null || methodName.isEmpty()) {
+			return className;
+		}
+		int end = methodName.length();
+		for (char c : new char[] { '[', '(', ' ' }) {
+			int i = methodName.indexOf(c);
+			if (i > 0 && i < end) {
+				end = i;
+			}
+		}
+		return className + "#" + methodName.substring(0, end);
+	}
+
+	static Suite readSuiteAttributes(XMLStreamReader reader) {
+		Suite suite = new Suite();
+		suite.name = reader.getAttributeValue(null, "name");
+		suite.timeMillis = parseTime(reader.getAttributeValue(null, "time"));
+		suite.tests = parseInt(reader.getAttributeValue(null, "tests"));
+		suite.failures = parseInt(reader.getAttributeValue(null, "failures"));
+		suite.errors = parseInt(reader.getAttributeValue(null, "errors"));
+		suite.skipped = parseInt(reader.getAttributeValue(null, "skipped"));
+		return suite;
+	}
+
+	/** surefire writes seconds, sometimes with a thousands separator */
+	static long parseTime(@Nullable String time) {
+		if (time == null) {
+			return 0;
+		}
+		try {
+			return (long) (Double.parseDouble(time.replace(",", "")) * 1000);
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	private static int parseInt(@Nullable String value) {
+		if (value == null) {
+			return 0;
+		}
+		try {
+			return Integer.parseInt(value.trim());
+		} catch (NumberFormatException e) {
+			return 0;
+		}
+	}
+
+	public static class Suite {
+		private String name;
+		private long timeMillis;
+		private int tests;
+		private int failures;
+		private int errors;
+		private int skipped;
+
+		/** fully qualified test class name */
+		public String getName() {
+			return name;
+		}
+
+		public long getTimeMillis() {
+			return timeMillis;
+		}
+
+		public int getTests() {
+			return tests;
+		}
+
+		public int getFailures() {
+			return failures;
+		}
+
+		public int getErrors() {
+			return errors;
+		}
+
+		public int getSkipped() {
+			return skipped;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+import krasa.mavenrun.analyzer.ComparableVersion;
+
+import org.apache.commons.lang.StringUtils;
+import org.apache.maven.shared.utils.io.MatchPatterns;
+import org.jdom.Element;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenPlugin;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.PathUtil;
+
+/**
+ * Surefire/failsafe configuration of a Maven project, read once per import.
+ *
+ * @author Vojtech Krasa
+ */
+public class SurefireRules {
+	private static final ComparableVersion FAILSAFE_METHOD_MINIMUM = new ComparableVersion("2.7.3");
+	private static final MatchPatterns DEFAULT_INCLUDES = MatchPatterns.from("**/Test*.java", "**/*Test.java",
+			"**/*Tests.java", "**/*TestCase.java");
+
+	private final boolean skipTests;
+	@Nullable
+	private final MatchPatterns includes;
+	@Nullable
+	private final MatchPatterns excludes;
+	private final boolean failsafe;
+	private final boolean failsafeMethodSupported;
+	private final List<String> testSourceDirectories;
+	@Nullable
+	private String argLine;
+	private final Map<String, String> systemProperties = new LinkedHashMap<String, String>();
+
+	private SurefireRules(boolean skipTests, @Nullable MatchPatterns includes, @Nullable MatchPatterns excludes,
+			boolean failsafe, boolean failsafeMethodSupported, List<String> testSourceDirectories) {
+		this.skipTests = skipTests;
+		this.includes = includes;
+		this.excludes = excludes;
+		this.failsafe = failsafe;
+		this.failsafeMethodSupported = failsafeMethodSupported;
+		this.testSourceDirectories = testSourceDirectories;
+	}
+
+	@NotNull
+	public static SurefireRules from(MavenProject mavenProject) {
+		Element configuration = mavenProject.getPluginConfiguration("org.apache.maven.plugins",
+				"maven-surefire-plugin");
+		boolean skipTests = false;
+		MatchPatterns includes = null;
+		MatchPatterns excludes = null;
+		if (configuration != null) {
+			Element skip;
+			if ((skip = configuration.getChild("skip")) != null) {
+				skipTests = Boolean.parseBoolean(skip.getText());
+			} else if ((skip = configuration.getChild("skipTests")) != null) {
+				skipTests = Boolean.parseBoolean(skip.getText());
+			}
+			includes = getPatterns(configuration, "includes", "include");
+			excludes = getPatterns(configuration, "excludes", "exclude");
+		}
+
+		MavenPlugin failsafePlugin = mavenProject.findPlugin("org.apache.maven.plugins", "maven-failsafe-plugin");
+		boolean failsafeMethodSupported = false;
+		if (failsafePlugin != null) {
+			ComparableVersion version = new ComparableVersion(String.valueOf(failsafePlugin.getVersion()));
+			failsafeMethodSupported = FAILSAFE_METHOD_MINIMUM.compareTo(version) != 1;
+		}
+
+		List<String> testSourceDirectories = new ArrayList<String>();
+		for (String directory : mavenProject.getTestSources()) {
+			testSourceDirectories.add(PathUtil.getCanonicalPath(directory));
+		}
+		SurefireRules rules = new SurefireRules(skipTests, includes, excludes, failsafePlugin != null,
+				failsafeMethodSupported, testSourceDirectories);
+		if (configuration != null) {
+			rules.readForkConfiguration(configuration);
+		}
+		return rules;
+	}
+
+	private void readForkConfiguration(Element configuration) {
+		argLine = configuration.getChildTextTrim("argLine");
+		Element variables = configuration.getChild("systemPropertyVariables");
+		if (variables != null) {
+			for (Element variable : variables.getChildren()) {
+				systemProperties.put(variable.getName(), variable.getTextTrim());
+			}
+		}
+		// deprecated style
+		Element properties = configuration.getChild("systemProperties");
+		if (properties != null) {
+			for (Element property : properties.getChildren("property")) {
+				String name = property.getChildTextTrim("name");
+				if (name != null) {
+					systemProperties.put(name, StringUtils.defaultString(property.getChildTextTrim("value")));
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private static MatchPatterns getPatterns(Element configuration, String listName, String itemName) {
+		Element list = configuration.getChild(listName);
+		if (list == null) {
+			return null;
+		}
+		List<String> patterns = new ArrayList<String>();
+		for (Element element : list.getChildren(itemName)) {
+			String text = element.getTextTrim();
+			if (!text.isEmpty()) {
+				patterns.add(text);
+			}
+		}
+		return patterns.isEmpty() ? null : MatchPatterns.from(patterns.toArray(new String[patterns.size()]));
+	}
+
+	/**
+	 * @param testClassFile path relative to the test source root, e.g. {@code com/foo/FooTest.java}
+	 */
+	public boolean isRunBySurefire(String testClassFile) {
+		if (skipTests) {
+			return false;
+		}
+		if (excludes != null && excludes.matches(testClassFile, true)) {
+			return false;
+		}
+		return includes == null || includes.matches(testClassFile, true);
+	}
+
+	/**
+	 * Whether surefire would pick the class when running all tests, default includes apply when none are configured.
+	 */
+	public boolean isTestClass(String testClassFile) {
+		if (excludes != null && excludes.matches(testClassFile, true)) {
+			return false;
+		}
+		return (includes != null ? includes : DEFAULT_INCLUDES).matches(testClassFile, true);
+	}
+
+	/**
+	 * @return canonical paths
+	 */
+	public List<String> getTestSourceDirectories() {
+		return Collections.unmodifiableList(testSourceDirectories);
+	}
+
+	public boolean hasFailsafe() {
+		return failsafe;
+	}
+
+	/** -Dit.test=Class#method works since failsafe 2.7.3 */
+	public boolean isFailsafeMethodSupported() {
+		return failsafeMethodSupported;
+	}
+
+	/**
+	 * @return path relative to the containing test source directory, or null when the file is not in one
+	 */
+	@Nullable
+	public String getRelativeTestPath(String filePath) {
+		String path = PathUtil.getCanonicalPath(filePath);
+		for (String directory : testSourceDirectories) {
+			if (FileUtil.isAncestor(directory, path, true)) {
+				return FileUtil.getRelativePath(directory, path, '/');
+			}
+		}
+		return null;
+	}
+
+	/** surefire argLine, as configured in the pom */
+	@Nullable
+	public String getArgLine() {
+		return argLine;
+	}
+
+	/** systemPropertyVariables and systemProperties */
+	public Map<String, String> getSystemProperties() {
+		return Collections.unmodifiableMap(systemProperties);
+	}
+}
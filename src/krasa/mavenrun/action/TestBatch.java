@@ -0,0 +1,293 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.project.MavenProjectsManager;
+
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.actionSystem.DataContext;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.roots.ProjectRootManager;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+
+/**
+ * Tests selected in project view/structure view/editor tabs, grouped so that each root project is run once for
+ * surefire tests and once for integration tests.
+ *
+ * @author Vojtech Krasa
+ */
+public class TestBatch {
+	private final Project project;
+	private final Map<MavenProject, ModuleTests> modules = new LinkedHashMap<MavenProject, ModuleTests>();
+	private int size;
+
+	private TestBatch(Project project) {
+		this.project = project;
+	}
+
+	/**
+	 * @return number of selected test files, 0 when nothing or only one file is selected
+	 */
+	public static int countSelectedTestFiles(@NotNull Project project, DataContext dataContext) {
+		VirtualFile[] files = CommonDataKeys.VIRTUAL_FILE_ARRAY.getData(dataContext);
+		if (files == null || files.length < 2) {
+			return 0;
+		}
+		ProjectFileIndex fileIndex = ProjectRootManager.getInstance(project).getFileIndex();
+		int count = 0;
+		for (VirtualFile file : files) {
+			if (isTestFile(fileIndex, file)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@NotNull
+	public static TestBatch fromSelection(@NotNull Project project, DataContext dataContext) {
+		TestBatch batch = new TestBatch(project);
+		PsiElement[] elements = LangDataKeys.PSI_ELEMENT_ARRAY.getData(dataContext);
+		if (elements != null && elements.length > 0) {
+			for (PsiElement element : elements) {
+				batch.add(element);
+			}
+		} else {
+			VirtualFile[] files = CommonDataKeys.VIRTUAL_FILE_ARRAY.getData(dataContext);
+			if (files != null) {
+				PsiManager psiManager = PsiManager.getInstance(project);
+				for (VirtualFile file : files) {
+					batch.add(psiManager.findFile(file));
+				}
+			}
+		}
+		return batch;
+	}
+
+	/**
+	 * @param surefireTests {@code class[#method]} of the Maven project, routed by surefire/failsafe rules
+	 * @param failsafeTests {@code class[#method]} of the Maven project, always run by failsafe
+	 */
+	@NotNull
+	public static TestBatch fromTests(@NotNull Project project, MavenProject mavenProject,
+			Collection<String> surefireTests, Collection<String> failsafeTests) {
+		TestBatch batch = new TestBatch(project);
+		for (String test : surefireTests) {
+			String className = StringUtils.substringBefore(test, "#");
+			// nested classes are in the file of the top level class
+			String relativePath = StringUtils.substringBefore(className, "$").replace(".", "/") + ".java";
+			batch.add(mavenProject, relativePath, test);
+		}
+		for (String test : failsafeTests) {
+			if (batch.getModuleTests(mavenProject).addFailsafe(test)) {
+				batch.size++;
+			}
+		}
+		return batch;
+	}
+
+	private static boolean isTestFile(ProjectFileIndex fileIndex, VirtualFile file) {
+		return !file.isDirectory() && "java".equals(file.getExtension()) && fileIndex.isInTestSourceContent(file);
+	}
+
+	private void add(@Nullable PsiElement element) {
+		if (element instanceof PsiMethod) {
+			PsiClass psiClass = ((PsiMethod) element).getContainingClass();
+			if (psiClass != null) {
+				add(psiClass, ((PsiMethod) element).getName());
+			}
+		} else if (element instanceof PsiClass) {
+			add((PsiClass) element, null);
+		} else if (element instanceof PsiJavaFile) {
+			for (PsiClass psiClass : ((PsiJavaFile) element).getClasses()) {
+				add(psiClass, null);
+			}
+		}
+	}
+
+	private void add(PsiClass psiClass, @Nullable String methodName) {
+		String qualifiedName = psiClass.getQualifiedName();
+		PsiFile psiFile = psiClass.getContainingFile();
+		if (qualifiedName == null || !(psiFile instanceof PsiJavaFile) || psiFile.getVirtualFile() == null) {
+			return;
+		}
+		VirtualFile file = psiFile.getVirtualFile();
+		if (!isTestFile(ProjectRootManager.getInstance(project).getFileIndex(), file)) {
+			return;
+		}
+		Module module = ModuleUtilCore.findModuleForFile(file, project);
+		MavenProject mavenProject = module == null ? null
+				: MavenProjectsManager.getInstance(project).findProject(module);
+		if (mavenProject == null) {
+			return;
+		}
+
+		String relativePath = getModuleTests(mavenProject).rules.getRelativeTestPath(file.getPath());
+		if (relativePath == null) {
+			relativePath = qualifiedName.replace(".", "/") + ".java";
+		}
+		String test = methodName == null ? qualifiedName : qualifiedName + "#" + methodName;
+		add(mavenProject, relativePath, test);
+	}
+
+	private void add(MavenProject mavenProject, String relativePath, String test) {
+		if (getModuleTests(mavenProject).add(relativePath, test)) {
+			size++;
+		}
+	}
+
+	private ModuleTests getModuleTests(MavenProject mavenProject) {
+		ModuleTests moduleTests = modules.get(mavenProject);
+		if (moduleTests == null) {
+			SurefireRules rules = MavenHelperProjectComponent.getInstance(project).getSurefireRules(mavenProject);
+			moduleTests = new ModuleTests(mavenProject, rules);
+			modules.put(mavenProject, moduleTests);
+		}
+		return moduleTests;
+	}
+
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * One invocation per root project and goal, modules are selected by -pl.
+	 *
+	 * @param extraGoals e.g. debug parameters
+	 */
+	public List<MavenRunnerParameters> getRunnerParameters(List<String> extraGoals, Collection<String> profiles) {
+		RootProjectResolver rootProjectResolver = MavenHelperProjectComponent.getInstance(project).getRootProjectResolver();
+		Map<String, Invocation> invocations = new LinkedHashMap<String, Invocation>();
+		for (ModuleTests moduleTests : modules.values()) {
+			MavenProject root = rootProjectResolver.getRootProject(moduleTests.mavenProject);
+			if (root == null) {
+				root = moduleTests.mavenProject;
+			}
+			boolean verify = moduleTests.isVerify();
+			String key = root.getDirectory() + "|" + verify;
+			Invocation invocation = invocations.get(key);
+			if (invocation == null) {
+				invocation = new Invocation(root, verify);
+				invocations.put(key, invocation);
+			}
+			invocation.add(moduleTests);
+		}
+
+		List<MavenRunnerParameters> result = new ArrayList<MavenRunnerParameters>();
+		for (Invocation invocation : invocations.values()) {
+			List<String> goals = invocation.getGoals();
+			goals.addAll(extraGoals);
+			result.add(new MavenRunnerParameters(true, invocation.root.getDirectory(), goals, profiles));
+		}
+		return result;
+	}
+
+	private static class ModuleTests {
+		private final MavenProject mavenProject;
+		private final SurefireRules rules;
+		private final Set<String> surefireTests = new LinkedHashSet<String>();
+		private final Set<String> failsafeTests = new LinkedHashSet<String>();
+		private boolean excludedFromSurefire;
+
+		private ModuleTests(MavenProject mavenProject, SurefireRules rules) {
+			this.mavenProject = mavenProject;
+			this.rules = rules;
+		}
+
+		/** routing is the same as for a single file, see RunTestFileAction#getGoals */
+		private boolean add(String relativePath, String test) {
+			if (rules.isRunBySurefire(relativePath)) {
+				return surefireTests.add(test);
+			}
+			if (!rules.hasFailsafe()) {
+				excludedFromSurefire = true;
+				return surefireTests.add(test);
+			}
+			return addFailsafe(test);
+		}
+
+		private boolean addFailsafe(String test) {
+			excludedFromSurefire = true;
+			if (!rules.isFailsafeMethodSupported()) {
+				test = StringUtils.substringBefore(test, "#");
+			}
+			return failsafeTests.add(test);
+		}
+
+		private boolean isVerify() {
+			return excludedFromSurefire;
+		}
+	}
+
+	private static class Invocation {
+		private final MavenProject root;
+		private final boolean verify;
+		private final List<String> modules = new ArrayList<String>();
+		private boolean includesRoot;
+		private final Set<String> surefireTests = new LinkedHashSet<String>();
+		private final Set<String> failsafeTests = new LinkedHashSet<String>();
+
+		private Invocation(MavenProject root, boolean verify) {
+			this.root = root;
+			this.verify = verify;
+		}
+
+		private void add(ModuleTests moduleTests) {
+			String module = FileUtil.getRelativePath(root.getDirectory(), moduleTests.mavenProject.getDirectory(), '/');
+			if (module == null || ".".equals(module)) {
+				includesRoot = true;
+			} else {
+				modules.add(module);
+			}
+			surefireTests.addAll(moduleTests.surefireTests);
+			failsafeTests.addAll(moduleTests.failsafeTests);
+		}
+
+		private List<String> getGoals() {
+			List<String> goals = new ArrayList<String>();
+			// without -pl the whole reactor would run with -Dtest of the root
+			List<String> projects = new ArrayList<String>();
+			if (includesRoot) {
+				projects.add(".");
+			}
+			projects.addAll(modules);
+			goals.add("-pl");
+			goals.add(StringUtils.join(projects, ","));
+			if (!surefireTests.isEmpty()) {
+				goals.add("-Dtest=" + StringUtils.join(surefireTests, ","));
+			}
+			if (!failsafeTests.isEmpty()) {
+				goals.add("-Dit.test=" + StringUtils.join(failsafeTests, ","));
+			}
+			// -Dtest/-Dit.test of one module matches nothing in the other ones
+			if (projects.size() > 1 || (verify && !surefireTests.isEmpty() && !failsafeTests.isEmpty())) {
+				goals.add("-DfailIfNoTests=false");
+				goals.add("-Dsurefire.failIfNoSpecifiedTests=false");
+				goals.add("-Dit.failIfNoSpecifiedTests=false");
+			}
+			if (verify) {
+				goals.add("verify");
+			} else {
+				goals.add("test-compile");
+				goals.add("surefire:test");
+			}
+			return goals;
+		}
+	}
+}
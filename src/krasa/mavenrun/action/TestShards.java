@@ -0,0 +1,91 @@
+package krasa.mavenrun.action;
+
+import java.util.*;
+
+/**
+ * Splits test classes into shards of similar total duration (longest processing time first).
+ *
+ * @author Vojtech Krasa
+ */
+public class TestShards {
+	/** used when there are no reports at all */
+	private static final long DEFAULT_DURATION_MILLIS = 1000;
+
+	/**
+	 * @param durations last known duration per class, classes without one get the average
+	 * @return non-empty shards
+	 */
+	public static List<List<String>> split(Collection<String> testClasses, final Map<String, Long> durations,
+			int shardCount) {
+		final long defaultDuration = average(testClasses, durations);
+		List<String> sorted = new ArrayList<String>(testClasses);
+		Collections.sort(sorted, new Comparator<String>() {
+			@Override
+			public int compare(String o1, String o2) {
+				int result = Long.valueOf(duration(o2, durations, defaultDuration)).compareTo(
+						duration(o1, durations, defaultDuration));
+				return result != 0 ? result : o1.compareTo(o2);
+			}
+		});
+
+		PriorityQueue<Shard> queue = new PriorityQueue<Shard>();
+		for (int i = 0; i < Math.max(1, Math.min(shardCount, sorted.size())); i++) {
+			queue.add(new Shard(i));
+		}
+		for (String testClass : sorted) {
+			Shard shard = queue.poll();
+			shard.testClasses.add(testClass);
+			shard.totalMillis += duration(testClass, durations, defaultDuration);
+			queue.add(shard);
+		}
+
+		List<Shard> shards = new ArrayList<Shard>(queue);
+		Collections.sort(shards, new Comparator<Shard>() {
+			@Override
+			public int compare(Shard o1, Shard o2) {
+				return o1.index - o2.index;
+			}
+		});
+		List<List<String>> result = new ArrayList<List<String>>();
+		for (Shard shard : shards) {
+			if (!shard.testClasses.isEmpty()) {
+				result.add(shard.testClasses);
+			}
+		}
+		return result;
+	}
+
+	private static long average(Collection<String> testClasses, Map<String, Long> durations) {
+		long total = 0;
+		int count = 0;
+		for (String testClass : testClasses) {
+			Long duration = durations.get(testClass);
+			if (duration != null) {
+				total += duration;
+				count++;
+			}
+		}
+		return count == 0 ? DEFAULT_DURATION_MILLIS : total / count;
+	}
+
+	private static long duration(String testClass, Map<String, Long> durations, long defaultDuration) {
+		Long duration = durations.get(testClass);
+		return duration != null ? duration : defaultDuration;
+	}
+
+	private static class Shard implements Comparable<Shard> {
+		private final int index;
+		private final List<String> testClasses = new ArrayList<String>();
+		private long totalMillis;
+
+		private Shard(int index) {
+			this.index = index;
+		}
+
+		@Override
+		public int compareTo(Shard o) {
+			int result = Long.valueOf(totalMillis).compareTo(o.totalMillis);
+			return result != 0 ? result : index - o.index;
+		}
+	}
+}
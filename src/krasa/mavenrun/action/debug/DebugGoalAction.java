@@ -26,8 +26,12 @@ public class DebugGoalAction extends RunGoalAction {
 
 	@Override
 	protected void run(final DataContext context, final MavenRunnerParameters params) {
-		params.getGoals().addAll(Debug.DEBUG_FORK_MODE);
-		runInternal(MavenActionUtil.getProject(context), params);
+		params.getGoals().addAll(ForkedDebugger.getDebugGoals());
+		if (params.getGoals().containsAll(ForkedDebugger.DEBUG_FORKS)) {
+			ForkedDebugger.run(MavenActionUtil.getProject(context), params);
+		} else {
+			runInternal(MavenActionUtil.getProject(context), params);
+		}
 	}
 
 	private void runInternal(final Project project, final MavenRunnerParameters params) {
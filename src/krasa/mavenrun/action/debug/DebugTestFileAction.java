@@ -5,13 +5,10 @@ import java.util.List;
 import krasa.mavenrun.action.RunTestFileAction;
 
 import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
-import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
 
-import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.DataContext;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiJavaFile;
 
 public class DebugTestFileAction extends RunTestFileAction {
 
@@ -25,14 +22,16 @@ public class DebugTestFileAction extends RunTestFileAction {
 	}
 
 	@Override
-	protected List<String> getGoals(AnActionEvent e, PsiJavaFile psiFile, MavenProject mavenProject) {
-		List<String> goals = super.getGoals(e, psiFile, mavenProject);
-		goals.addAll(Debug.DEBUG_FORK_MODE);
-		return goals;
+	protected List<String> getExtraGoals() {
+		return ForkedDebugger.getDebugGoals();
 	}
 
 	@Override
 	protected void run(final DataContext context, final MavenRunnerParameters params) {
+		if (params.getGoals().containsAll(ForkedDebugger.DEBUG_FORKS)) {
+			ForkedDebugger.run(MavenActionUtil.getProject(context), params);
+			return;
+		}
 		runInternal(MavenActionUtil.getProject(context), params);
 	}
 
@@ -0,0 +1,135 @@
+package krasa.mavenrun.action.debug;
+
+import java.io.File;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import krasa.mavenrun.ApplicationComponent;
+import krasa.mavenrun.action.MavenDaemon;
+
+import org.jetbrains.idea.maven.execution.MavenRunnerParameters;
+
+import com.intellij.execution.RunManager;
+import com.intellij.execution.RunnerAndConfigurationSettings;
+import com.intellij.execution.configurations.ConfigurationTypeUtil;
+import com.intellij.execution.executors.DefaultDebugExecutor;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.remote.RemoteConfiguration;
+import com.intellij.execution.remote.RemoteConfigurationType;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Key;
+
+/**
+ * Debugs tests in surefire/failsafe forks instead of the Maven JVM. Every fork starts a JDWP agent on a free port
+ * and waits, the port printed by the agent is attached by a remote debug session. Configured forkCount and
+ * parallel forks are kept.
+ *
+ * @author Vojtech Krasa
+ */
+public class ForkedDebugger extends ProcessAdapter {
+	private static final String AGENT = "-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=localhost:0";
+	public static final List<String> DEBUG_FORKS = Arrays.asList("-Dmaven.surefire.debug=" + AGENT,
+			"-Dmaven.failsafe.debug=" + AGENT);
+	/** printed by the JDWP agent of each fork */
+	private static final Pattern LISTENING = Pattern.compile("Listening for transport dt_socket at address: ?(\\S+)");
+
+	private final Project project;
+	private final String name;
+	private final StringBuilder line = new StringBuilder();
+	private final Set<String> attached = new HashSet<String>();
+
+	public ForkedDebugger(Project project, String name) {
+		this.project = project;
+		this.name = name;
+	}
+
+	public static boolean isEnabled() {
+		return ApplicationComponent.getInstance().getState().isDebugForkedTests();
+	}
+
+	public static List<String> getDebugGoals() {
+		return isEnabled() ? DEBUG_FORKS : Debug.DEBUG_FORK_MODE;
+	}
+
+	/**
+	 * Runs Maven itself without debugger, {@link #DEBUG_FORKS} must be in the goals.
+	 */
+	public static void run(Project project, MavenRunnerParameters params) {
+		MavenDaemon.runConfiguration(project, params, new ForkedDebugger(project,
+				new File(params.getWorkingDirPath()).getName()));
+	}
+
+	/** the same listener is attached again on rerun */
+	@Override
+	public void startNotified(ProcessEvent event) {
+		synchronized (line) {
+			line.setLength(0);
+			attached.clear();
+		}
+	}
+
+	@Override
+	public void onTextAvailable(ProcessEvent event, Key outputType) {
+		String text = event.getText();
+		synchronized (line) {
+			for (int i = 0; i < text.length(); i++) {
+				char c = text.charAt(i);
+				if (c == '\n') {
+					parseLine(line.toString());
+					line.setLength(0);
+				} else if (c != '\r') {
+					line.append(c);
+				}
+			}
+		}
+	}
+
+	private void parseLine(String text) {
+		if (!text.contains("dt_socket")) {
+			return;
+		}
+		Matcher matcher = LISTENING.matcher(text);
+		if (matcher.find() && attached.add(matcher.group(1))) {
+			attach(matcher.group(1));
+		}
+	}
+
+	protected String getSessionName(int fork) {
+		return name + " fork " + fork;
+	}
+
+	private void attach(String address) {
+		final String host;
+		final String port;
+		int separator = address.lastIndexOf(':');
+		if (separator >= 0) {
+			host = address.substring(0, separator);
+			port = address.substring(separator + 1);
+		} else {
+			host = "localhost";
+			port = address;
+		}
+		final int fork = attached.size();
+		ApplicationManager.getApplication().invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				if (project.isDisposed()) {
+					return;
+				}
+				RunnerAndConfigurationSettings settings = RunManager.getInstance(project).createRunConfiguration(
+						getSessionName(fork), ConfigurationTypeUtil.findConfigurationType(
+								RemoteConfigurationType.class).getFactory());
+				RemoteConfiguration configuration = (RemoteConfiguration) settings.getConfiguration();
+				configuration.HOST = host.isEmpty() || "0.0.0.0".equals(host) ? "localhost" : host;
+				configuration.PORT = port;
+				configuration.USE_SOCKET_TRANSPORT = true;
+				configuration.SERVER_MODE = false;
+				MavenDebugConfigurationType.debugConfiguration(project, null, settings,
+						DefaultDebugExecutor.getDebugExecutorInstance());
+			}
+		});
+	}
+}
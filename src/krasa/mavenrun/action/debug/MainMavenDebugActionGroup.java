@@ -8,6 +8,7 @@ import krasa.mavenrun.action.CreateCustomGoalAction;
 import krasa.mavenrun.action.MainMavenActionGroup;
 import krasa.mavenrun.action.RunConfigurationAction;
 import krasa.mavenrun.action.RunGoalAction;
+import krasa.mavenrun.action.fasttest.DebugTestServerAction;
 
 import javax.swing.*;
 import java.util.List;
@@ -15,6 +16,9 @@ import java.util.List;
 @SuppressWarnings("ComponentNotRegistered")
 public class MainMavenDebugActionGroup extends MainMavenActionGroup {
 
+	public MainMavenDebugActionGroup() {
+	}
+
 	public MainMavenDebugActionGroup(String shortName, final Icon pluginGoal) {
 		super(shortName, pluginGoal);
 	}
@@ -27,6 +31,7 @@ public class MainMavenDebugActionGroup extends MainMavenActionGroup {
 	@Override
 	protected void addTestFile(List<AnAction> result) {
 		result.add(new DebugTestFileAction());
+		result.add(new DebugTestServerAction());
 	}
 
 	@Override
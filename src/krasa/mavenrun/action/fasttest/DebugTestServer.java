@@ -0,0 +1,359 @@
+package krasa.mavenrun.action.fasttest;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.action.debug.ForkedDebugger;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.debugger.DebuggerManagerEx;
+import com.intellij.debugger.engine.DebugProcessImpl;
+import com.intellij.debugger.engine.events.DebuggerCommandImpl;
+import com.intellij.debugger.impl.DebuggerSession;
+import com.intellij.debugger.jdi.VirtualMachineProxyImpl;
+import com.intellij.debugger.ui.HotSwapUI;
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunContentExecutor;
+import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompileStatusNotification;
+import com.intellij.openapi.compiler.CompilerManager;
+import com.intellij.openapi.compiler.CompilerPaths;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.util.net.NetUtils;
+import com.sun.jdi.ReferenceType;
+
+/**
+ * Test JVM of a module kept alive under the debugger. The first debug run starts {@link FastTestLauncher} in server
+ * mode and attaches a remote debug session, next runs only make the module, redefine the changed classes and send the
+ * test to the running JVM once the redefinition finished. Structural changes which cannot be redefined restart the
+ * server. Servers are owned by {@link MavenHelperProjectComponent} and stopped with the project.
+ *
+ * @author Vojtech Krasa
+ */
+public class DebugTestServer {
+	private static final Logger LOG = Logger.getInstance(DebugTestServer.class);
+	private static final String AGENT = "-agentlib:jdwp=transport=dt_socket,server=y,suspend=y,address=localhost:0";
+	private static final int CONNECT_TIMEOUT_MILLIS = 60 * 1000;
+	private static final int CONNECT_RETRY_MILLIS = 200;
+	/** file systems with 1s mtime resolution */
+	private static final int TIMESTAMP_PRECISION_MILLIS = 1000;
+
+	private final Project project;
+	private final Module module;
+	private final MavenProject mavenProject;
+	private final String name;
+	private final ConcurrentMap<Module, DebugTestServer> servers;
+	private int port;
+	/** class files older than this are loaded in the JVM */
+	private volatile long classesLoadedSince;
+	@Nullable
+	private OSProcessHandler processHandler;
+
+	private DebugTestServer(Project project, Module module, MavenProject mavenProject) {
+		this.project = project;
+		this.module = module;
+		this.mavenProject = mavenProject;
+		this.name = "Debug Test Server " + module.getName();
+		this.servers = getServers(project);
+	}
+
+	private static ConcurrentMap<Module, DebugTestServer> getServers(Project project) {
+		return MavenHelperProjectComponent.getInstance(project).getDebugTestServers();
+	}
+
+	public static void stopAll(Project project) {
+		for (DebugTestServer server : new ArrayList<DebugTestServer>(getServers(project).values())) {
+			server.stop();
+		}
+	}
+
+	/**
+	 * @param test class[#method]
+	 */
+	public static void debug(Project project, Module module, MavenProject mavenProject, String test) {
+		ConcurrentMap<Module, DebugTestServer> servers = getServers(project);
+		DebugTestServer server = servers.get(module);
+		if (server != null && server.isRunning() && server.getSession() != null) {
+			server.rerun(test);
+			return;
+		}
+		if (server != null) {
+			server.stop();
+		}
+		server = new DebugTestServer(project, module, mavenProject);
+		servers.put(module, server);
+		server.start(test);
+	}
+
+	private boolean isRunning() {
+		return processHandler != null && !processHandler.isProcessTerminated();
+	}
+
+	@Nullable
+	private DebuggerSession getSession() {
+		for (DebuggerSession session : DebuggerManagerEx.getInstanceEx(project).getSessions()) {
+			if (name.equals(session.getSessionName()) && session.isAttached()) {
+				return session;
+			}
+		}
+		return null;
+	}
+
+	private void stop() {
+		servers.remove(module, this);
+		if (processHandler != null && !processHandler.isProcessTerminated()) {
+			processHandler.destroyProcess();
+		}
+	}
+
+	private void start(final String test) {
+		classesLoadedSince = System.currentTimeMillis();
+		make(new Runnable() {
+			@Override
+			public void run() {
+				launch(test);
+			}
+		});
+	}
+
+	private void rerun(final String test) {
+		final long since = classesLoadedSince;
+		final long makeStarted = System.currentTimeMillis();
+		HotSwapUI.getInstance(project).dontPerformHotswapAfterThisCompilation();
+		make(new Runnable() {
+			@Override
+			public void run() {
+				DebuggerSession session = getSession();
+				if (session == null) {
+					restart(test);
+					return;
+				}
+				redefineAndSend(session, since, makeStarted, test);
+			}
+		});
+	}
+
+	private void restart(String test) {
+		stop();
+		debug(project, module, mavenProject, test);
+	}
+
+	/**
+	 * HotSwapUI reloads asynchronously without telling when it is done, so the classes are redefined on the debugger
+	 * thread here and the test is sent only afterwards.
+	 */
+	private void redefineAndSend(DebuggerSession session, final long since, final long makeStarted, final String test) {
+		final Map<String, File> changedClasses = findChangedClasses(since);
+		final DebugProcessImpl process = session.getProcess();
+		process.getManagerThread().invoke(new DebuggerCommandImpl() {
+			@Override
+			protected void action() throws Exception {
+				try {
+					redefine(process.getVirtualMachineProxy(), changedClasses);
+				} catch (Throwable e) {
+					LOG.info(name + " cannot redefine classes, restarting", e);
+					ApplicationManager.getApplication().invokeLater(new Runnable() {
+						@Override
+						public void run() {
+							if (!project.isDisposed()) {
+								restart(test);
+							}
+						}
+					});
+					return;
+				}
+				classesLoadedSince = makeStarted;
+				sendInBackground(test);
+			}
+		});
+	}
+
+	/**
+	 * @return binary class name -> class file, for class files written since the last reload
+	 */
+	private Map<String, File> findChangedClasses(long since) {
+		Map<String, File> result = new HashMap<String, File>();
+		for (boolean tests : new boolean[] { false, true }) {
+			String outputPath = CompilerPaths.getModuleOutputPath(module, tests);
+			if (outputPath != null) {
+				File outputDirectory = new File(outputPath);
+				collectChangedClasses(result, outputDirectory, outputDirectory, since - TIMESTAMP_PRECISION_MILLIS);
+			}
+		}
+		return result;
+	}
+
+	private void collectChangedClasses(Map<String, File> result, File root, File directory, long since) {
+		File[] children = directory.listFiles();
+		if (children == null) {
+			return;
+		}
+		for (File child : children) {
+			if (child.isDirectory()) {
+				collectChangedClasses(result, root, child, since);
+			} else if (child.getName().endsWith(".class") && child.lastModified() >= since) {
+				String relativePath = FileUtil.getRelativePath(root, child);
+				if (relativePath != null) {
+					String className = StringUtils.removeEnd(FileUtil.toSystemIndependentName(relativePath), ".class");
+					result.put(className.replace('/', '.'), child);
+				}
+			}
+		}
+	}
+
+	/** classes not loaded yet are picked up from the disk by the JVM */
+	private static void redefine(VirtualMachineProxyImpl virtualMachine, Map<String, File> classes) throws IOException {
+		Map<ReferenceType, byte[]> redefined = new HashMap<ReferenceType, byte[]>();
+		for (Map.Entry<String, File> entry : classes.entrySet()) {
+			List<ReferenceType> types = virtualMachine.classesByName(entry.getKey());
+			if (!types.isEmpty()) {
+				byte[] bytes = FileUtil.loadFileBytes(entry.getValue());
+				for (ReferenceType type : types) {
+					redefined.put(type, bytes);
+				}
+			}
+		}
+		if (!redefined.isEmpty()) {
+			virtualMachine.redefineClasses(redefined);
+		}
+	}
+
+	private void make(final Runnable onSuccess) {
+		CompilerManager compilerManager = CompilerManager.getInstance(project);
+		compilerManager.make(compilerManager.createModuleCompileScope(module, true), new CompileStatusNotification() {
+			@Override
+			public void finished(boolean aborted, int errors, int warnings, CompileContext compileContext) {
+				if (!aborted && errors == 0 && !project.isDisposed()) {
+					onSuccess.run();
+				}
+			}
+		});
+	}
+
+	private void launch(String test) {
+		try {
+			port = NetUtils.findAvailableSocketPort();
+			JavaParameters javaParameters = new FastTestRunner(project, module, mavenProject, test).createJavaParameters();
+			javaParameters.getProgramParametersList().clearAll();
+			javaParameters.getProgramParametersList().add(FastTestLauncher.SERVER);
+			javaParameters.getProgramParametersList().add(String.valueOf(port));
+			javaParameters.getVMParametersList().add(AGENT);
+
+			processHandler = new OSProcessHandler(javaParameters.toCommandLine());
+			processHandler.addProcessListener(new ForkedDebugger(project, name) {
+				@Override
+				protected String getSessionName(int fork) {
+					return name;
+				}
+			});
+			processHandler.addProcessListener(new ProcessAdapter() {
+				@Override
+				public void processTerminated(ProcessEvent event) {
+					servers.remove(module, DebugTestServer.this);
+				}
+			});
+			new RunContentExecutor(project, processHandler).withTitle(name).withActivateToolWindow(true).run();
+		} catch (ExecutionException e) {
+			stop();
+			Messages.showErrorDialog(project, e.getMessage(), "Debug Test Server");
+			return;
+		} catch (IOException e) {
+			stop();
+			Messages.showErrorDialog(project, e.getMessage(), "Debug Test Server");
+			return;
+		}
+		// the JVM waits for the debugger before it starts listening
+		sendInBackground(test);
+	}
+
+	private void sendInBackground(final String test) {
+		ApplicationManager.getApplication().executeOnPooledThread(new Runnable() {
+			@Override
+			public void run() {
+				String result = send(test);
+				if (result != null) {
+					showNotification(test, result);
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return {@link FastTestLauncher#PASSED}/{@link FastTestLauncher#FAILED}, null when the server is gone
+	 */
+	@Nullable
+	private String send(String test) {
+		long deadline = System.currentTimeMillis() + CONNECT_TIMEOUT_MILLIS;
+		while (isRunning()) {
+			Socket socket;
+			try {
+				socket = new Socket(InetAddress.getByName("127.0.0.1"), port);
+			} catch (IOException e) {
+				if (System.currentTimeMillis() > deadline) {
+					LOG.warn(name + " does not accept connections on port " + port, e);
+					return null;
+				}
+				try {
+					Thread.sleep(CONNECT_RETRY_MILLIS);
+				} catch (InterruptedException e1) {
+					return null;
+				}
+				continue;
+			}
+			try {
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+				out.write(StringUtils.substringBefore(test, "#"));
+				if (test.contains("#")) {
+					out.write(" " + StringUtils.substringAfter(test, "#"));
+				}
+				out.write("\n");
+				out.flush();
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+				return in.readLine();
+			} catch (IOException e) {
+				LOG.warn(name + " failed to run " + test, e);
+				return null;
+			} finally {
+				try {
+					socket.close();
+				} catch (IOException ignored) {
+				}
+			}
+		}
+		return null;
+	}
+
+	private void showNotification(String test, String result) {
+		boolean passed = FastTestLauncher.PASSED.equals(result);
+		final Notification notification = new Notification(FastTestRunner.NOTIFICATION_GROUP, name, test + " "
+				+ result, passed ? NotificationType.INFORMATION : NotificationType.WARNING);
+		ApplicationManager.getApplication().invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				Notifications.Bus.notify(notification, project);
+			}
+		});
+	}
+}
@@ -0,0 +1,58 @@
+package krasa.mavenrun.action.fasttest;
+
+import krasa.mavenrun.action.RunTestFileAction;
+import krasa.mavenrun.action.debug.Debug;
+
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+
+/**
+ * Debugs the current test in the module's {@link DebugTestServer}, started on first use.
+ *
+ * @author Vojtech Krasa
+ */
+public class DebugTestServerAction extends RunTestFileAction {
+
+	public DebugTestServerAction() {
+		super("Debug test server", "Debug current test in a reused JVM, changes are reloaded by HotSwap", Debug.ICON);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		PsiFile psiFile = LangDataKeys.PSI_FILE.getData(e.getDataContext());
+		if (mavenProject == null || !(psiFile instanceof PsiJavaFile)) {
+			Messages.showWarningDialog(e.getProject(), "Cannot debug current file", "Debug Test Server");
+			return;
+		}
+		Module module = ModuleUtilCore.findModuleForPsiElement(psiFile);
+		if (module == null) {
+			Messages.showWarningDialog(e.getProject(), "Module not found", "Debug Test Server");
+			return;
+		}
+		String test = getTestArgument(e, (PsiJavaFile) psiFile);
+		DebugTestServer.debug(psiFile.getProject(), module, mavenProject, test);
+	}
+
+	@Override
+	public void update(AnActionEvent e) {
+		super.update(e);
+		// multiple files are run by Maven
+		if (e.getPresentation().isVisible() && LangDataKeys.PSI_FILE.getData(e.getDataContext()) == null) {
+			e.getPresentation().setVisible(false);
+		}
+	}
+
+	@Override
+	protected String getText(String s) {
+		return "Debug Server " + s;
+	}
+}
@@ -0,0 +1,58 @@
+package krasa.mavenrun.action.fasttest;
+
+import krasa.mavenrun.action.RunTestFileAction;
+
+import org.jetbrains.idea.maven.project.MavenProject;
+import org.jetbrains.idea.maven.utils.actions.MavenActionUtil;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.LangDataKeys;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.module.ModuleUtilCore;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.psi.PsiFile;
+import com.intellij.psi.PsiJavaFile;
+
+/**
+ * Runs the current test directly on the module classpath, skipping the Maven lifecycle.
+ *
+ * @author Vojtech Krasa
+ */
+public class FastTestFileAction extends RunTestFileAction {
+
+	public FastTestFileAction() {
+		super("Fast test file", "Run current test without Maven lifecycle", AllIcons.Actions.Execute);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		MavenProject mavenProject = MavenActionUtil.getMavenProject(e.getDataContext());
+		PsiFile psiFile = LangDataKeys.PSI_FILE.getData(e.getDataContext());
+		if (mavenProject == null || !(psiFile instanceof PsiJavaFile)) {
+			Messages.showWarningDialog(e.getProject(), "Cannot run for current file", "Fast Test");
+			return;
+		}
+		Module module = ModuleUtilCore.findModuleForPsiElement(psiFile);
+		if (module == null) {
+			Messages.showWarningDialog(e.getProject(), "Module not found", "Fast Test");
+			return;
+		}
+		String test = getTestArgument(e, (PsiJavaFile) psiFile);
+		new FastTestRunner(psiFile.getProject(), module, mavenProject, test).run();
+	}
+
+	@Override
+	public void update(AnActionEvent e) {
+		super.update(e);
+		// multiple files are run by Maven
+		if (e.getPresentation().isVisible() && LangDataKeys.PSI_FILE.getData(e.getDataContext()) == null) {
+			e.getPresentation().setVisible(false);
+		}
+	}
+
+	@Override
+	protected String getText(String s) {
+		return "Fast Test " + s;
+	}
+}
@@ -0,0 +1,126 @@
+package krasa.mavenrun.action.fasttest;
+
+import java.io.*;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Method;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Main class of the forked test JVM. Runs a JUnit or TestNG class or method by reflection, so that it works with
+ * whatever version is on the test classpath. Must not use IntelliJ classes.
+ * <p>
+ * Arguments: {@code className [methodName]}, or {@code --server port} to keep running and accept one
+ * {@code className [methodName]} line per connection on localhost, answered by {@code passed} or {@code failed}.
+ * The same classes are reused by every run, changes are expected to come by HotSwap.
+ *
+ * @author Vojtech Krasa
+ */
+public class FastTestLauncher {
+
+	public static final String SERVER = "--server";
+	public static final String PASSED = "passed";
+	public static final String FAILED = "failed";
+
+	public static void main(String[] args) throws Exception {
+		if (SERVER.equals(args[0])) {
+			serve(Integer.parseInt(args[1]));
+			return;
+		}
+		System.exit(run(args[0], args.length > 1 ? args[1] : null) ? 0 : 1);
+	}
+
+	private static void serve(int port) throws IOException {
+		ServerSocket serverSocket = new ServerSocket(port, 1, InetAddress.getByName("127.0.0.1"));
+		System.out.println("Debug test server listening on port " + port);
+		while (true) {
+			Socket socket = serverSocket.accept();
+			try {
+				BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream(), "UTF-8"));
+				String line = in.readLine();
+				if (line == null || line.trim().isEmpty()) {
+					continue;
+				}
+				String[] command = line.trim().split(" ");
+				boolean success;
+				try {
+					System.out.println("Running " + line.trim());
+					success = run(command[0], command.length > 1 ? command[1] : null);
+				} catch (Throwable e) {
+					e.printStackTrace();
+					success = false;
+				}
+				Writer out = new OutputStreamWriter(socket.getOutputStream(), "UTF-8");
+				out.write((success ? PASSED : FAILED) + "\n");
+				out.flush();
+			} finally {
+				socket.close();
+			}
+		}
+	}
+
+	private static boolean run(String className, String methodName) throws Exception {
+		Class<?> testClass = Class.forName(className, false, FastTestLauncher.class.getClassLoader());
+		if (isTestNG(testClass)) {
+			return runTestNG(className, methodName);
+		}
+		return runJUnit(testClass, methodName);
+	}
+
+	private static boolean isTestNG(Class<?> testClass) {
+		if (hasTestNGAnnotation(testClass.getAnnotations())) {
+			return true;
+		}
+		for (Method method : testClass.getMethods()) {
+			if (hasTestNGAnnotation(method.getAnnotations())) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean hasTestNGAnnotation(Annotation[] annotations) {
+		for (Annotation annotation : annotations) {
+			if (annotation.annotationType().getName().startsWith("org.testng.annotations.")) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean runJUnit(Class<?> testClass, String methodName) throws Exception {
+		ClassLoader classLoader = testClass.getClassLoader();
+		Class<?> requestClass = Class.forName("org.junit.runner.Request", true, classLoader);
+		Object request;
+		if (methodName == null) {
+			request = requestClass.getMethod("aClass", Class.class).invoke(null, testClass);
+		} else {
+			request = requestClass.getMethod("method", Class.class, String.class).invoke(null, testClass, methodName);
+		}
+
+		Class<?> coreClass = Class.forName("org.junit.runner.JUnitCore", true, classLoader);
+		Object core = coreClass.newInstance();
+		Class<?> listenerClass = Class.forName("org.junit.runner.notification.RunListener", true, classLoader);
+		Object textListener = Class.forName("org.junit.internal.TextListener", true, classLoader).getConstructor(
+				PrintStream.class).newInstance(System.out);
+		coreClass.getMethod("addListener", listenerClass).invoke(core, textListener);
+
+		Object result = coreClass.getMethod("run", requestClass).invoke(core, request);
+		return (Boolean) result.getClass().getMethod("wasSuccessful").invoke(result);
+	}
+
+	private static boolean runTestNG(String className, String methodName) throws Exception {
+		ClassLoader classLoader = FastTestLauncher.class.getClassLoader();
+		Class<?> testNGClass = Class.forName("org.testng.TestNG", true, classLoader);
+		Class<?> listenerClass = Class.forName("org.testng.ITestListener", true, classLoader);
+		String[] argv;
+		if (methodName == null) {
+			argv = new String[] { "-testclass", className };
+		} else {
+			argv = new String[] { "-methods", className + "." + methodName };
+		}
+		Object testNG = testNGClass.getMethod("privateMain", String[].class, listenerClass).invoke(null, argv, null);
+		return (Integer) testNGClass.getMethod("getStatus").invoke(testNG) == 0;
+	}
+}
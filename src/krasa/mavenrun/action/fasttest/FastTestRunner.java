@@ -0,0 +1,156 @@
+package krasa.mavenrun.action.fasttest;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.action.SurefireRules;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.execution.ExecutionException;
+import com.intellij.execution.RunContentExecutor;
+import com.intellij.execution.configurations.JavaParameters;
+import com.intellij.execution.configurations.ParametersList;
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.compiler.CompileContext;
+import com.intellij.openapi.compiler.CompileStatusNotification;
+import com.intellij.openapi.compiler.CompilerManager;
+import com.intellij.openapi.module.Module;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.util.PathUtil;
+
+/**
+ * Makes the module and runs a test class/method in a forked JVM on the module test classpath (dependencies as
+ * resolved by Maven import plus compiler output), without the Maven lifecycle.
+ *
+ * @author Vojtech Krasa
+ */
+public class FastTestRunner {
+	public static final String NOTIFICATION_GROUP = "Maven Helper - Fast Test";
+	private static final Pattern PLACEHOLDER = Pattern.compile("[$@]\\{([^}]+)\\}");
+
+	private final Project project;
+	private final Module module;
+	private final MavenProject mavenProject;
+	/** class[#method] */
+	private final String test;
+
+	public FastTestRunner(Project project, Module module, MavenProject mavenProject, String test) {
+		this.project = project;
+		this.module = module;
+		this.mavenProject = mavenProject;
+		this.test = test;
+	}
+
+	public void run() {
+		final long start = System.currentTimeMillis();
+		CompilerManager compilerManager = CompilerManager.getInstance(project);
+		compilerManager.make(compilerManager.createModuleCompileScope(module, true), new CompileStatusNotification() {
+			@Override
+			public void finished(boolean aborted, int errors, int warnings, CompileContext compileContext) {
+				if (!aborted && errors == 0 && !project.isDisposed()) {
+					launch(start);
+				}
+			}
+		});
+	}
+
+	private void launch(final long start) {
+		try {
+			OSProcessHandler processHandler = new OSProcessHandler(createJavaParameters().toCommandLine());
+			processHandler.addProcessListener(new ProcessAdapter() {
+				@Override
+				public void processTerminated(ProcessEvent event) {
+					notifyFinished(event.getExitCode(), System.currentTimeMillis() - start);
+				}
+			});
+			new RunContentExecutor(project, processHandler).withTitle("Fast Test " + test).withRerun(new Runnable() {
+				@Override
+				public void run() {
+					FastTestRunner.this.run();
+				}
+			}).withActivateToolWindow(true).run();
+		} catch (ExecutionException e) {
+			Messages.showErrorDialog(project, e.getMessage(), "Fast Test");
+		}
+	}
+
+	JavaParameters createJavaParameters() throws ExecutionException {
+		JavaParameters javaParameters = new JavaParameters();
+		javaParameters.configureByModule(module, JavaParameters.JDK_AND_CLASSES_AND_TESTS);
+		javaParameters.getClassPath().add(PathUtil.getJarPathForClass(FastTestLauncher.class));
+		javaParameters.setMainClass(FastTestLauncher.class.getName());
+		javaParameters.setWorkingDirectory(mavenProject.getDirectory());
+		javaParameters.getProgramParametersList().add(StringUtils.substringBefore(test, "#"));
+		if (test.contains("#")) {
+			javaParameters.getProgramParametersList().add(StringUtils.substringAfter(test, "#"));
+		}
+
+		SurefireRules rules = MavenHelperProjectComponent.getInstance(project).getSurefireRules(mavenProject);
+		ParametersList vmParameters = javaParameters.getVMParametersList();
+		vmParameters.addProperty("basedir", mavenProject.getDirectory());
+		if (rules.getArgLine() != null) {
+			vmParameters.addParametersString(resolvePlaceholders(rules.getArgLine()));
+		}
+		for (Map.Entry<String, String> entry : rules.getSystemProperties().entrySet()) {
+			vmParameters.addProperty(entry.getKey(), resolvePlaceholders(entry.getValue()));
+		}
+		return javaParameters;
+	}
+
+	/** unknown properties, e.g. argLine set by jacoco at build time, are removed */
+	private String resolvePlaceholders(String value) {
+		Properties properties = mavenProject.getProperties();
+		Matcher matcher = PLACEHOLDER.matcher(value);
+		StringBuffer sb = new StringBuffer();
+		while (matcher.find()) {
+			String name = matcher.group(1);
+			String replacement;
+			if ("basedir".equals(name) || "project.basedir".equals(name)) {
+				replacement = mavenProject.getDirectory();
+			} else if ("project.build.directory".equals(name)) {
+				replacement = mavenProject.getBuildDirectory();
+			} else {
+				replacement = StringUtils.defaultString(properties.getProperty(name));
+			}
+			matcher.appendReplacement(sb, Matcher.quoteReplacement(replacement));
+		}
+		matcher.appendTail(sb);
+		return sb.toString();
+	}
+
+	private void notifyFinished(int exitCode, long millis) {
+		StringBuilder content = new StringBuilder();
+		content.append(exitCode == 0 ? "Passed" : "Failed").append(" in ").append(format(millis));
+		Long mavenMillis = TestTimings.getLastMavenMillis(test);
+		if (mavenMillis != null) {
+			content.append(", last Maven run took ").append(format(mavenMillis));
+			if (mavenMillis > millis) {
+				content.append(" (").append(format(mavenMillis - millis)).append(" saved)");
+			}
+		}
+		final Notification notification = new Notification(NOTIFICATION_GROUP, "Fast Test " + test,
+				content.toString(), exitCode == 0 ? NotificationType.INFORMATION : NotificationType.WARNING);
+		ApplicationManager.getApplication().invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				Notifications.Bus.notify(notification, project);
+			}
+		});
+	}
+
+	private static String format(long millis) {
+		return String.format("%.1f s", millis / 1000.0);
+	}
+}
@@ -0,0 +1,64 @@
+package krasa.mavenrun.action.fasttest;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.execution.process.ProcessListener;
+
+/**
+ * Duration of the last Maven run of a test, to show how much the fast test mode saved.
+ *
+ * @author Vojtech Krasa
+ */
+public class TestTimings {
+	private static final ConcurrentMap<String, Long> mavenMillis = new ConcurrentHashMap<String, Long>();
+
+	/**
+	 * @return listener recording the duration of a Maven run of a single test, null when the goals do not select one
+	 */
+	@Nullable
+	public static ProcessListener mavenRunListener(List<String> goals) {
+		final String test = getTest(goals);
+		if (test == null) {
+			return null;
+		}
+		return new ProcessAdapter() {
+			private long start = System.currentTimeMillis();
+
+			@Override
+			public void startNotified(ProcessEvent event) {
+				// the process may be created long before it starts, e.g. when waiting for a make
+				start = System.currentTimeMillis();
+			}
+
+			@Override
+			public void processTerminated(ProcessEvent event) {
+				if (event.getExitCode() == 0) {
+					mavenMillis.put(test, System.currentTimeMillis() - start);
+				}
+			}
+		};
+	}
+
+	@Nullable
+	public static Long getLastMavenMillis(String test) {
+		return mavenMillis.get(test);
+	}
+
+	@Nullable
+	private static String getTest(List<String> goals) {
+		for (String goal : goals) {
+			if (goal.startsWith("-Dtest=")) {
+				return goal.substring("-Dtest=".length());
+			} else if (goal.startsWith("-Dit.test=")) {
+				return goal.substring("-Dit.test=".length());
+			}
+		}
+		return null;
+	}
+}
@@ -0,0 +1,195 @@
+package krasa.mavenrun.analyzer;
+
+import java.util.*;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+/**
+ * Swing-free core of the dependency analyzer, {@link GuiForm} only renders its results. Usable headless, see
+ * DependencyAnalyzerBenchmark in the benchmark source root.
+ *
+ * @author Vojtech Krasa
+ */
+public class DependencyAnalyzer {
+	private static final Logger LOG = Logger.getInstance(DependencyAnalyzer.class);
+	private static final int MAX_DEPTH = 100;
+
+	public static final Comparator<MavenArtifactNode> BY_ARTIFACT_ID = new Comparator<MavenArtifactNode>() {
+		@Override
+		public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
+			return o1.getArtifact().getArtifactId().compareTo(o2.getArtifact().getArtifactId());
+		}
+	};
+
+	/** @return all occurrences of each artifact by {@link #getArtifactKey(MavenArtifact)}, sorted by key */
+	public static Map<String, List<MavenArtifactNode>> createAllArtifactsMap(List<MavenArtifactNode> dependencyTree) {
+		final Map<String, List<MavenArtifactNode>> map = new TreeMap<String, List<MavenArtifactNode>>();
+		addAll(map, dependencyTree, 0);
+		return map;
+	}
+
+	private static void addAll(Map<String, List<MavenArtifactNode>> map, List<MavenArtifactNode> artifactNodes, int i) {
+		if (i > MAX_DEPTH) {
+			final StringBuilder stringBuilder = new StringBuilder();
+			for (MavenArtifactNode s : artifactNodes) {
+				stringBuilder.append(s.getArtifact().toString());
+				stringBuilder.append(" ");
+			}
+			LOG.error("Recursion aborted, artifactNodes = [" + stringBuilder + "]");
+			return;
+		}
+		for (MavenArtifactNode mavenArtifactNode : artifactNodes) {
+			final String key = getArtifactKey(mavenArtifactNode.getArtifact());
+			final List<MavenArtifactNode> mavenArtifactNodes = map.get(key);
+			if (mavenArtifactNodes == null) {
+				final ArrayList<MavenArtifactNode> value = new ArrayList<MavenArtifactNode>(1);
+				value.add(mavenArtifactNode);
+				map.put(key, value);
+			} else {
+				mavenArtifactNodes.add(mavenArtifactNode);
+			}
+			addAll(map, mavenArtifactNode.getDependencies(), i + 1);
+		}
+	}
+
+	public static boolean hasConflicts(List<MavenArtifactNode> nodes) {
+		String version = null;
+		for (MavenArtifactNode node : nodes) {
+			if (version != null && !version.equals(node.getArtifact().getVersion())) {
+				return true;
+			}
+			version = node.getArtifact().getVersion();
+		}
+		return false;
+	}
+
+	public static Map<String, List<MavenArtifactNode>> getConflicts(Map<String, List<MavenArtifactNode>> allArtifactsMap) {
+		Map<String, List<MavenArtifactNode>> result = new TreeMap<String, List<MavenArtifactNode>>();
+		for (Map.Entry<String, List<MavenArtifactNode>> s : allArtifactsMap.entrySet()) {
+			if (s.getValue().size() > 1 && hasConflicts(s.getValue())) {
+				result.put(s.getKey(), s.getValue());
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param searchText matched against the artifact key, null matches everything
+	 * @return entries of the list views
+	 */
+	public static List<Map.Entry<String, List<MavenArtifactNode>>> filter(
+			Map<String, List<MavenArtifactNode>> allArtifactsMap, @Nullable String searchText, boolean conflictsOnly) {
+		List<Map.Entry<String, List<MavenArtifactNode>>> result = new ArrayList<Map.Entry<String, List<MavenArtifactNode>>>();
+		for (Map.Entry<String, List<MavenArtifactNode>> s : allArtifactsMap.entrySet()) {
+			final List<MavenArtifactNode> nodes = s.getValue();
+			if (conflictsOnly && !(nodes.size() > 1 && hasConflicts(nodes))) {
+				continue;
+			}
+			if (searchText == null || s.getKey().contains(searchText)) {
+				result.add(s);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Sorts the nodes from the highest version.
+	 *
+	 * @return the highest version
+	 */
+	public static String sortByVersion(List<MavenArtifactNode> value) {
+		Collections.sort(value, new Comparator<MavenArtifactNode>() {
+			@Override
+			public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
+				DefaultArtifactVersion version = new DefaultArtifactVersion(o1.getArtifact().getVersion());
+				DefaultArtifactVersion version1 = new DefaultArtifactVersion(o2.getArtifact().getVersion());
+				return version1.compareTo(version);
+			}
+		});
+		return value.get(0).getArtifact().getVersion();
+	}
+
+	public static String sortByName(List<MavenArtifactNode> value) {
+		Collections.sort(value, new Comparator<MavenArtifactNode>() {
+			@Override
+			public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
+				return o1.getArtifact().getLibraryName().compareTo(o2.getArtifact().getLibraryName());
+			}
+		});
+		return value.get(0).getArtifact().getVersion();
+	}
+
+	@NotNull
+	public static String getArtifactKey(MavenArtifact artifact) {
+		return artifact.getGroupId() + " : " + artifact.getArtifactId();
+	}
+
+	/**
+	 * Dependency tree sorted by artifactId. When searching, only top level dependencies containing a match are kept
+	 * and the matches are highlighted.
+	 */
+	public static List<TreeNode> buildTree(List<MavenArtifactNode> dependencyTree, @Nullable String searchText) {
+		List<TreeNode> roots = new ArrayList<TreeNode>();
+		buildTree(roots, true, dependencyTree, searchText);
+		return roots;
+	}
+
+	private static boolean buildTree(List<TreeNode> parent, boolean root, List<MavenArtifactNode> dependencyTree,
+			String searchText) {
+		boolean search = StringUtils.isNotBlank(searchText);
+		Collections.sort(dependencyTree, BY_ARTIFACT_ID);
+		boolean containsFilteredItem = false;
+
+		for (MavenArtifactNode mavenArtifactNode : dependencyTree) {
+			TreeNode newNode = new TreeNode(mavenArtifactNode);
+			if (search && contains(searchText, mavenArtifactNode)) {
+				containsFilteredItem = true;
+				newNode.highlight = true;
+			}
+			containsFilteredItem |= buildTree(newNode.children, false, mavenArtifactNode.getDependencies(),
+					searchText);
+
+			if (root) {
+				if (!search || containsFilteredItem) {
+					parent.add(newNode);
+				}
+				containsFilteredItem = false;
+			} else {
+				parent.add(newNode);
+			}
+		}
+		return containsFilteredItem;
+	}
+
+	private static boolean contains(String searchText, MavenArtifactNode mavenArtifactNode) {
+		return mavenArtifactNode.getArtifact().getDisplayStringSimple().contains(searchText);
+	}
+
+	public static class TreeNode {
+		private final MavenArtifactNode node;
+		private final List<TreeNode> children = new ArrayList<TreeNode>();
+		private boolean highlight;
+
+		TreeNode(MavenArtifactNode node) {
+			this.node = node;
+		}
+
+		public MavenArtifactNode getNode() {
+			return node;
+		}
+
+		public List<TreeNode> getChildren() {
+			return children;
+		}
+
+		public boolean isHighlight() {
+			return highlight;
+		}
+	}
+}
@@ -0,0 +1,285 @@
+package krasa.mavenrun.analyzer;
+
+import java.util.*;
+
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+
+/**
+ * Greedy set-cover over the dependency tree: picks {@code <exclusion>} entries on direct dependencies until every
+ * conflicting artifact is left only in its target version. An exclusion is never chosen if it would remove the last
+ * surviving occurrence of any artifact, so the solution only converges versions, it does not drop dependencies.
+ *
+ * @author Vojtech Krasa
+ */
+public class ExclusionsSolver {
+	public static final long DEFAULT_TIME_BUDGET_MILLIS = 3000;
+
+	private final List<MavenArtifactNode> dependencyTree;
+
+	private final List<MavenArtifactNode> nodes = new ArrayList<MavenArtifactNode>();
+	private final List<Integer> nodeKeys = new ArrayList<Integer>();
+	private final List<Integer> nodeDirectDependency = new ArrayList<Integer>();
+	private final List<String> keys = new ArrayList<String>();
+	private final Map<String, Integer> keyIds = new HashMap<String, Integer>();
+	/** (direct dependency, excluded key) -> nodes which would disappear */
+	private final Map<Candidate, List<Integer>> candidates = new LinkedHashMap<Candidate, List<Integer>>();
+
+	public ExclusionsSolver(List<MavenArtifactNode> dependencyTree) {
+		this.dependencyTree = dependencyTree;
+		for (int i = 0; i < dependencyTree.size(); i++) {
+			index(dependencyTree.get(i), i, new ArrayList<Integer>(), 0);
+		}
+	}
+
+	private void index(MavenArtifactNode node, int directDependency, List<Integer> path, int depth) {
+		if (depth > 100) {
+			return;
+		}
+		int nodeId = nodes.size();
+		int keyId = keyId(DependencyAnalyzer.getArtifactKey(node.getArtifact()));
+		nodes.add(node);
+		nodeKeys.add(keyId);
+		nodeDirectDependency.add(directDependency);
+
+		if (depth > 0) {
+			path.add(keyId);
+			for (Integer key : new HashSet<Integer>(path)) {
+				Candidate candidate = new Candidate(directDependency, key);
+				List<Integer> covered = candidates.get(candidate);
+				if (covered == null) {
+					covered = new ArrayList<Integer>();
+					candidates.put(candidate, covered);
+				}
+				covered.add(nodeId);
+			}
+		}
+		for (MavenArtifactNode child : node.getDependencies()) {
+			index(child, directDependency, path, depth + 1);
+		}
+		if (depth > 0) {
+			path.remove(path.size() - 1);
+		}
+	}
+
+	private int keyId(String key) {
+		Integer id = keyIds.get(key);
+		if (id == null) {
+			id = keys.size();
+			keys.add(key);
+			keyIds.put(key, id);
+		}
+		return id;
+	}
+
+	/**
+	 * @param targetVersions artifact key (see {@link DependencyAnalyzer#getArtifactKey}) -> version which should survive
+	 */
+	public Solution solve(Map<String, String> targetVersions, long timeBudgetMillis) {
+		long deadline = System.currentTimeMillis() + timeBudgetMillis;
+		Solution solution = new Solution();
+
+		String[] targets = new String[keys.size()];
+		for (Map.Entry<String, String> entry : targetVersions.entrySet()) {
+			Integer keyId = keyIds.get(entry.getKey());
+			if (keyId != null) {
+				targets[keyId] = entry.getValue();
+			}
+		}
+
+		boolean[] alive = new boolean[nodes.size()];
+		int[] aliveGood = new int[keys.size()];
+		Arrays.fill(alive, true);
+		for (int i = 0; i < nodes.size(); i++) {
+			if (!isBad(i, targets)) {
+				aliveGood[nodeKeys.get(i)]++;
+			}
+		}
+		// a direct dependency cannot be excluded, and a missing target version cannot be reached by excluding
+		for (int i = 0; i < nodes.size(); i++) {
+			int key = nodeKeys.get(i);
+			if (targets[key] != null && (aliveGood[key] == 0 || (isBad(i, targets) && isDirect(i)))) {
+				solution.unresolved.add(keys.get(key));
+				targets[key] = null;
+			}
+		}
+		Arrays.fill(aliveGood, 0);
+		int remainingBad = 0;
+		for (int i = 0; i < nodes.size(); i++) {
+			if (isBad(i, targets)) {
+				remainingBad++;
+			} else {
+				aliveGood[nodeKeys.get(i)]++;
+			}
+		}
+
+		int[] removedGood = new int[keys.size()];
+		while (remainingBad > 0) {
+			if (System.currentTimeMillis() > deadline) {
+				solution.timedOut = true;
+				break;
+			}
+			Candidate best = null;
+			double bestScore = 0;
+			for (Map.Entry<Candidate, List<Integer>> entry : candidates.entrySet()) {
+				int bad = 0;
+				int good = 0;
+				List<Integer> touched = new ArrayList<Integer>();
+				for (Integer nodeId : entry.getValue()) {
+					if (!alive[nodeId]) {
+						continue;
+					}
+					if (isBad(nodeId, targets)) {
+						bad++;
+					} else {
+						good++;
+						int key = nodeKeys.get(nodeId);
+						if (removedGood[key]++ == 0) {
+							touched.add(key);
+						}
+					}
+				}
+				boolean feasible = bad > 0;
+				for (Integer key : touched) {
+					feasible &= aliveGood[key] > removedGood[key];
+					removedGood[key] = 0;
+				}
+				if (feasible) {
+					double score = bad / (good + 1.0);
+					if (best == null || score > bestScore) {
+						best = entry.getKey();
+						bestScore = score;
+					}
+				}
+			}
+			if (best == null) {
+				break;
+			}
+			for (Integer nodeId : candidates.get(best)) {
+				if (alive[nodeId]) {
+					alive[nodeId] = false;
+					if (isBad(nodeId, targets)) {
+						remainingBad--;
+					} else {
+						aliveGood[nodeKeys.get(nodeId)]--;
+					}
+				}
+			}
+			solution.exclusions.add(new Exclusion(dependencyTree.get(best.directDependency),
+					findArtifact(best)));
+		}
+
+		for (int i = 0; i < nodes.size(); i++) {
+			if (alive[i] && isBad(i, targets)) {
+				solution.unresolved.add(keys.get(nodeKeys.get(i)));
+			}
+		}
+		for (int key = 0; key < targets.length; key++) {
+			if (targets[key] != null && !solution.unresolved.contains(keys.get(key))) {
+				solution.converged.add(keys.get(key));
+			}
+		}
+		return solution;
+	}
+
+	private MavenArtifact findArtifact(Candidate candidate) {
+		for (Integer nodeId : candidates.get(candidate)) {
+			if (nodeKeys.get(nodeId) == candidate.key) {
+				return nodes.get(nodeId).getArtifact();
+			}
+		}
+		throw new IllegalStateException("no node for " + keys.get(candidate.key));
+	}
+
+	private boolean isDirect(int nodeId) {
+		return nodes.get(nodeId).getParent() == null;
+	}
+
+	private boolean isBad(int nodeId, String[] targets) {
+		String target = targets[nodeKeys.get(nodeId)];
+		return target != null && !target.equals(nodes.get(nodeId).getArtifact().getVersion());
+	}
+
+	/** @return the highest version of each artifact, the default target of the solver */
+	public static Map<String, String> maxVersions(Map<String, List<MavenArtifactNode>> conflicts) {
+		Map<String, String> result = new HashMap<String, String>();
+		for (Map.Entry<String, List<MavenArtifactNode>> entry : conflicts.entrySet()) {
+			result.put(entry.getKey(), DependencyAnalyzer.sortByVersion(entry.getValue()));
+		}
+		return result;
+	}
+
+	private static class Candidate {
+		private final int directDependency;
+		private final int key;
+
+		private Candidate(int directDependency, int key) {
+			this.directDependency = directDependency;
+			this.key = key;
+		}
+
+		@Override
+		public boolean equals(Object o) {
+			if (this == o)
+				return true;
+			if (o == null || getClass() != o.getClass())
+				return false;
+			Candidate candidate = (Candidate) o;
+			return directDependency == candidate.directDependency && key == candidate.key;
+		}
+
+		@Override
+		public int hashCode() {
+			return 31 * directDependency + key;
+		}
+	}
+
+	public static class Exclusion {
+		private final MavenArtifactNode dependency;
+		private final MavenArtifact excludedArtifact;
+
+		public Exclusion(MavenArtifactNode dependency, MavenArtifact excludedArtifact) {
+			this.dependency = dependency;
+			this.excludedArtifact = excludedArtifact;
+		}
+
+		/** direct dependency which gets the {@code <exclusion>} */
+		public MavenArtifactNode getDependency() {
+			return dependency;
+		}
+
+		public MavenArtifact getExcludedArtifact() {
+			return excludedArtifact;
+		}
+
+		@Override
+		public String toString() {
+			return dependency.getArtifact().getArtifactId() + " -> exclude " + excludedArtifact.getGroupId() + ":"
+					+ excludedArtifact.getArtifactId();
+		}
+	}
+
+	public static class Solution {
+		private final List<Exclusion> exclusions = new ArrayList<Exclusion>();
+		private final Set<String> converged = new TreeSet<String>();
+		private final Set<String> unresolved = new TreeSet<String>();
+		private boolean timedOut;
+
+		public List<Exclusion> getExclusions() {
+			return exclusions;
+		}
+
+		public Set<String> getConverged() {
+			return converged;
+		}
+
+		/** conflicts which cannot be fixed by exclusions, e.g. the wrong version is a direct dependency */
+		public Set<String> getUnresolved() {
+			return unresolved;
+		}
+
+		public boolean isTimedOut() {
+			return timedOut;
+		}
+	}
+}
@@ -6,20 +6,19 @@ import com.intellij.openapi.actionSystem.ActionToolbar;
 import com.intellij.openapi.actionSystem.DefaultActionGroup;
 import com.intellij.openapi.actionSystem.ex.ActionManagerEx;
 import com.intellij.openapi.application.ex.ApplicationInfoEx;
-import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.util.BuildNumber;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.ui.*;
 import com.intellij.ui.components.JBList;
 import com.intellij.util.text.VersionComparatorUtil;
+import krasa.mavenrun.MavenHelperProjectComponent;
+import krasa.mavenrun.analyzer.action.ConflictsListPopupHandler;
 import krasa.mavenrun.analyzer.action.LeftTreePopupHandler;
 import krasa.mavenrun.analyzer.action.RightTreePopupHandler;
+import krasa.mavenrun.diagnostics.Metrics;
 import krasa.mavenrun.model.SortableListDataModel;
-import org.apache.commons.lang.StringUtils;
 import org.ibex.nestedvm.util.Sort;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.idea.maven.model.MavenArtifact;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
 import org.jetbrains.idea.maven.project.MavenProject;
 import org.jetbrains.idea.maven.project.MavenProjectsManager;
@@ -44,19 +43,13 @@ import java.util.List;
  * @author Vojtech Krasa
  */
 public class GuiForm {
-    private static final Logger LOG = Logger.getInstance("#krasa.mavenrun.analyzer.GuiForm");
 
     public static final String WARNING = "Your settings indicates, that conflicts will not be visible, see IDEA-133331\n"
             + "If your project is Maven2 compatible, you could try one of the following:\n"
             + "-use IJ 2016.1+ and configure it to use external Maven 3.1.1+ (File | Settings | Build, Execution, Deployment | Build Tools | Maven | Maven home directory)\n"
             + "-press Apply Fix button to alter Maven VM options for importer (might cause trouble for IJ 2016.1+)\n"
             + "-turn off File | Settings | Build, Execution, Deployment | Build Tools | Maven | Importing | Use Maven3 to import project setting\n";
-    protected static final Comparator<MavenArtifactNode> BY_ARTICATF_ID = new Comparator<MavenArtifactNode>() {
-        @Override
-        public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
-            return o1.getArtifact().getArtifactId().compareTo(o2.getArtifact().getArtifactId());
-        }
-    };
+    private static final Set<GuiForm> OPENED_FORMS = Collections.synchronizedSet(new HashSet<GuiForm>());
 
     private final Project project;
     private final VirtualFile file;
@@ -146,8 +139,7 @@ public class GuiForm {
                     mavenEmbedderVMOptions += " -Dmaven3.use.compat.resolver";
                 }
                 MavenServerManager.getInstance().setMavenEmbedderVMOptions(mavenEmbedderVMOptions);
-                final MavenProjectsManager projectsManager = MavenProjectsManager.getInstance(project);
-                projectsManager.forceUpdateAllProjectsOrFindAllAvailablePomFiles();
+                reimport();
                 refreshButton.getActionListeners()[0].actionPerformed(e);
             }
         });
@@ -164,6 +156,42 @@ public class GuiForm {
         rightTree.getSelectionModel().setSelectionMode(TreeSelectionModel.SINGLE_TREE_SELECTION);
         rightTree.addMouseListener(new RightTreePopupHandler(project, mavenProject, rightTree));
 
+        leftPanelList.addMouseListener(new ConflictsListPopupHandler(project, mavenProject) {
+            @Override
+            protected List<MavenArtifactNode> getDependencyTree() {
+                return dependencyTree;
+            }
+
+            @Override
+            protected Map<String, List<MavenArtifactNode>> getAllConflicts() {
+                return DependencyAnalyzer.getConflicts(allArtifactsMap);
+            }
+
+            @Override
+            protected Map<String, List<MavenArtifactNode>> getSelectedConflicts() {
+                Map<String, List<MavenArtifactNode>> result = new TreeMap<String, List<MavenArtifactNode>>();
+                for (Object selectedValue : leftPanelList.getSelectedValues()) {
+                    MyListNode myListNode = (MyListNode) selectedValue;
+                    if (DependencyAnalyzer.hasConflicts(myListNode.value)) {
+                        result.put(myListNode.key, myListNode.value);
+                    }
+                }
+                return result;
+            }
+
+            @Override
+            protected void dependenciesExcluded(ExclusionsSolver.Solution solution) {
+                for (String key : solution.getConverged()) {
+                    for (int i = 0; i < listDataModel.size(); i++) {
+                        if (((MyListNode) listDataModel.get(i)).key.equals(key)) {
+                            listDataModel.remove(i);
+                            break;
+                        }
+                    }
+                }
+            }
+        });
+
         leftTree.addTreeSelectionListener(new LeftTreeSelectionListener());
         leftTreeRoot = new DefaultMutableTreeNode();
         leftTreeModel = new DefaultTreeModel(leftTreeRoot);
@@ -191,6 +219,41 @@ public class GuiForm {
         ActionToolbar actionToolbar = ActionManagerEx.getInstance().createActionToolbar("krasa.MavenHelper.buttons",
                 actionGroup, true);
         buttonsPanel.add(actionToolbar.getComponent(), "1");
+        OPENED_FORMS.add(this);
+    }
+
+    public void dispose() {
+        OPENED_FORMS.remove(this);
+    }
+
+    /**
+     * Reimports projects of opened analyzers together with their aggregators right away, the rest of the workspace is
+     * reimported once the IDE becomes idle, also when this form is closed meanwhile.
+     */
+    private void reimport() {
+        final MavenProjectsManager projectsManager = MavenProjectsManager.getInstance(project);
+        final Set<MavenProject> toReimport = new LinkedHashSet<MavenProject>();
+        for (GuiForm form : getOpenedForms()) {
+            if (form.project == project) {
+                addWithAggregators(projectsManager, form.mavenProject, toReimport);
+            }
+        }
+        addWithAggregators(projectsManager, mavenProject, toReimport);
+        projectsManager.forceUpdateProjects(new ArrayList<MavenProject>(toReimport));
+        MavenHelperProjectComponent.getInstance(project).reimportRemainingWhenIdle(toReimport);
+    }
+
+    private static List<GuiForm> getOpenedForms() {
+        synchronized (OPENED_FORMS) {
+            return new ArrayList<GuiForm>(OPENED_FORMS);
+        }
+    }
+
+    private void addWithAggregators(MavenProjectsManager projectsManager, MavenProject mavenProject,
+                                    Set<MavenProject> result) {
+        while (mavenProject != null && result.add(mavenProject)) {
+            mavenProject = projectsManager.findAggregator(mavenProject);
+        }
     }
 
     private void createUIComponents() {
@@ -216,28 +279,6 @@ public class GuiForm {
         leftTree = new MyHighlightingTree();
     }
 
-    public static String sortByVersion(List<MavenArtifactNode> value) {
-        Collections.sort(value, new Comparator<MavenArtifactNode>() {
-            @Override
-            public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
-                DefaultArtifactVersion version = new DefaultArtifactVersion(o1.getArtifact().getVersion());
-                DefaultArtifactVersion version1 = new DefaultArtifactVersion(o2.getArtifact().getVersion());
-                return version1.compareTo(version);
-            }
-        });
-        return value.get(0).getArtifact().getVersion();
-    }
-
-    public static String sortByName(List<MavenArtifactNode> value) {
-        Collections.sort(value, new Comparator<MavenArtifactNode>() {
-            @Override
-            public int compare(MavenArtifactNode o1, MavenArtifactNode o2) {
-                return o1.getArtifact().getLibraryName().compareTo(o2.getArtifact().getLibraryName());
-            }
-        });
-        return value.get(0).getArtifact().getVersion();
-    };
-
     private class LeftTreeSelectionListener implements TreeSelectionListener {
         @Override
         public void valueChanged(TreeSelectionEvent e) {
@@ -246,10 +287,10 @@ public class GuiForm {
                 DefaultMutableTreeNode lastPathComponent = (DefaultMutableTreeNode) selectionPath.getLastPathComponent();
                 MyTreeUserObject userObject = (MyTreeUserObject) lastPathComponent.getUserObject();
 
-                final String key = getArtifactKey(userObject.getArtifact());
+                final String key = DependencyAnalyzer.getArtifactKey(userObject.getArtifact());
                 List<MavenArtifactNode> mavenArtifactNodes = allArtifactsMap.get(key);
                 if (mavenArtifactNodes != null) {// can be null while refreshing
-                    fillRightTree(mavenArtifactNodes, sortByVersion(mavenArtifactNodes));
+                    fillRightTree(mavenArtifactNodes, DependencyAnalyzer.sortByVersion(mavenArtifactNodes));
                 }
             }
         }
@@ -293,22 +334,36 @@ public class GuiForm {
     }
 
     private void initializeModel() {
-        final Object selectedValue = leftPanelList.getSelectedValue();
+        long start = Metrics.ANALYZER_INITIALIZE_MODEL.start();
+        try {
+            final Object selectedValue = leftPanelList.getSelectedValue();
 
-        dependencyTree = mavenProject.getDependencyTree();
-        allArtifactsMap = createAllArtifactsMap(dependencyTree);
-        updateLeftPanel();
+            dependencyTree = mavenProject.getDependencyTree();
+            allArtifactsMap = DependencyAnalyzer.createAllArtifactsMap(dependencyTree);
+            updateLeftPanel();
 
-        rightTreeRoot.removeAllChildren();
-        rightTreeModel.reload();
-        leftPanelWrapper.revalidate();
+            rightTreeRoot.removeAllChildren();
+            rightTreeModel.reload();
+            leftPanelWrapper.revalidate();
 
-        if (selectedValue != null) {
-            leftPanelList.setSelectedValue(selectedValue, true);
+            if (selectedValue != null) {
+                leftPanelList.setSelectedValue(selectedValue, true);
+            }
+        } finally {
+            Metrics.ANALYZER_INITIALIZE_MODEL.stop(start);
         }
     }
 
     private void updateLeftPanel() {
+        long start = Metrics.ANALYZER_UPDATE_LEFT_PANEL.start();
+        try {
+            doUpdateLeftPanel();
+        } finally {
+            Metrics.ANALYZER_UPDATE_LEFT_PANEL.stop(start);
+        }
+    }
+
+    private void doUpdateLeftPanel() {
         listDataModel.clear();
         leftTreeRoot.removeAllChildren();
 
@@ -318,13 +373,9 @@ public class GuiForm {
         boolean conflictsWarning = false;
         boolean showNoConflictsLabel = false;
         if (conflictsRadioButton.isSelected()) {
-            for (Map.Entry<String, List<MavenArtifactNode>> s : allArtifactsMap.entrySet()) {
-                final List<MavenArtifactNode> nodes = s.getValue();
-                if (nodes.size() > 1 && hasConflicts(nodes)) {
-                    if (searchFieldText == null || s.getKey().contains(searchFieldText)) {
-                        sortableListDataModel.add(new MyListNode(s));
-                    }
-                }
+            for (Map.Entry<String, List<MavenArtifactNode>> s : DependencyAnalyzer.filter(allArtifactsMap,
+                    searchFieldText, true)) {
+                sortableListDataModel.add(new MyListNode(s));
             }
             showNoConflictsLabel = sortableListDataModel.isEmpty();
             BuildNumber build = ApplicationInfoEx.getInstanceEx().getBuild();
@@ -345,15 +396,14 @@ public class GuiForm {
             }
             leftPanelLayout.show(leftPanelWrapper, "list");
         } else if (allDependenciesAsListRadioButton.isSelected()) {
-            for (Map.Entry<String, List<MavenArtifactNode>> s : allArtifactsMap.entrySet()) {
-                if (searchFieldText == null || s.getKey().contains(searchFieldText)) {
-                    sortableListDataModel.add(new MyListNode(s));
-                }
+            for (Map.Entry<String, List<MavenArtifactNode>> s : DependencyAnalyzer.filter(allArtifactsMap,
+                    searchFieldText, false)) {
+                sortableListDataModel.add(new MyListNode(s));
             }
             showNoConflictsLabel = false;
             leftPanelLayout.show(leftPanelWrapper, "list");
         } else { // tree
-            fillLeftTree(leftTreeRoot, dependencyTree, searchFieldText);
+            fillLeftTree(leftTreeRoot, DependencyAnalyzer.buildTree(dependencyTree, searchFieldText));
             leftTreeModel.nodeStructureChanged(leftTreeRoot);
             TreeUtils.expandAll(leftTree);
 
@@ -377,93 +427,15 @@ public class GuiForm {
         noConflictsLabel.setVisible(showNoConflictsLabel);
     }
 
-    private boolean fillLeftTree(DefaultMutableTreeNode parent, List<MavenArtifactNode> dependencyTree,
-                                 String searchFieldText) {
-        boolean search = StringUtils.isNotBlank(searchFieldText);
-        Collections.sort(dependencyTree, BY_ARTICATF_ID);
-        boolean containsFilteredItem = false;
-
-        for (MavenArtifactNode mavenArtifactNode : dependencyTree) {
-            SimpleTextAttributes attributes = SimpleTextAttributes.REGULAR_ATTRIBUTES;
-            MyTreeUserObject treeUserObject = new MyTreeUserObject(mavenArtifactNode, attributes);
-            if (search && contains(searchFieldText, mavenArtifactNode)) {
-                containsFilteredItem = true;
-                treeUserObject.highlight = true;
-            }
+    private void fillLeftTree(DefaultMutableTreeNode parent, List<DependencyAnalyzer.TreeNode> nodes) {
+        for (DependencyAnalyzer.TreeNode node : nodes) {
+            MyTreeUserObject treeUserObject = new MyTreeUserObject(node.getNode(),
+                    SimpleTextAttributes.REGULAR_ATTRIBUTES);
+            treeUserObject.highlight = node.isHighlight();
             final DefaultMutableTreeNode newNode = new DefaultMutableTreeNode(treeUserObject);
-            containsFilteredItem |= fillLeftTree(newNode, mavenArtifactNode.getDependencies(), searchFieldText);
-
-            if (parent == leftTreeRoot) {
-                if (search && !containsFilteredItem) {
-                    // do not add
-                } else {
-                    parent.add(newNode);
-                }
-                containsFilteredItem = false;
-            } else {
-                parent.add(newNode);
-            }
+            fillLeftTree(newNode, node.getChildren());
+            parent.add(newNode);
         }
-
-        return containsFilteredItem;
-    }
-
-    private boolean contains(String searchFieldText, MavenArtifactNode mavenArtifactNode) {
-        MavenArtifact artifact = mavenArtifactNode.getArtifact();
-        String displayStringSimple = artifact.getDisplayStringSimple();
-        return displayStringSimple.contains(searchFieldText);
-    }
-
-    private boolean hasConflicts(List<MavenArtifactNode> nodes) {
-        String version = null;
-        for (MavenArtifactNode node : nodes) {
-            if (version != null && !version.equals(node.getArtifact().getVersion())) {
-                return true;
-            }
-            version = node.getArtifact().getVersion();
-        }
-        return false;
-    }
-
-    private Map<String, List<MavenArtifactNode>> createAllArtifactsMap(List<MavenArtifactNode> dependencyTree) {
-        final Map<String, List<MavenArtifactNode>> map = new TreeMap<String, List<MavenArtifactNode>>();
-        addAll(map, dependencyTree, 0);
-        return map;
-    }
-
-    private void addAll(Map<String, List<MavenArtifactNode>> map, List<MavenArtifactNode> artifactNodes, int i) {
-        if (map == null) {
-            return;
-        }
-        if (i > 100) {
-            final StringBuilder stringBuilder = new StringBuilder();
-            for (MavenArtifactNode s : artifactNodes) {
-                final String s1 = s.getArtifact().toString();
-                stringBuilder.append(s1);
-                stringBuilder.append(" ");
-            }
-            LOG.error("Recursion aborted, artifactNodes = [" + stringBuilder + "]");
-            return;
-        }
-        for (MavenArtifactNode mavenArtifactNode : artifactNodes) {
-            final MavenArtifact artifact = mavenArtifactNode.getArtifact();
-
-            final String key = getArtifactKey(artifact);
-            final List<MavenArtifactNode> mavenArtifactNodes = map.get(key);
-            if (mavenArtifactNodes == null) {
-                final ArrayList<MavenArtifactNode> value = new ArrayList<MavenArtifactNode>(1);
-                value.add(mavenArtifactNode);
-                map.put(key, value);
-            } else {
-                mavenArtifactNodes.add(mavenArtifactNode);
-            }
-            addAll(map, mavenArtifactNode.getDependencies(), i + 1);
-        }
-    }
-
-    @NotNull
-    private String getArtifactKey(MavenArtifact artifact) {
-        return artifact.getGroupId() + " : " + artifact.getArtifactId();
     }
 
     public JComponent getRootComponent() {
@@ -17,7 +17,7 @@ public class MyListNode {
     public MyListNode(Map.Entry<String, List<MavenArtifactNode>> s) {
         key = s.getKey();
         value = s.getValue();
-        maxVersion = GuiForm.sortByVersion(value);
+        maxVersion = DependencyAnalyzer.sortByVersion(value);
     }
 
     public String getMaxVersion() {
@@ -41,6 +41,7 @@ public final class UIFormEditor extends UserDataHolderBase implements /* Navigat
 	}
 
 	public void dispose() {
+		myEditor.dispose();
 	}
 
 	public JComponent getPreferredFocusedComponent() {
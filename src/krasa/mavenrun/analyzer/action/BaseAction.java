@@ -51,13 +51,20 @@ public abstract class BaseAction extends DumbAwareAction {
 	}
 
 	protected DomFileElement getDomFileElement(MavenArtifactNode mavenArtifactNode) {
-		XmlFile xmlFile = getXmlFile(mavenArtifactNode);
+		return getDomFileElement(getVirtualFile(mavenArtifactNode));
+	}
+
+	protected DomFileElement getDomFileElement(VirtualFile virtualFile) {
+		XmlFile xmlFile = getXmlFile(virtualFile);
 		return xmlFile == null ? null : DomManager.getDomManager(project).getFileElement(xmlFile,
 				MavenDomProjectModel.class);
 	}
 
 	protected XmlFile getXmlFile(MavenArtifactNode artifact) {
-		VirtualFile virtualFile = getVirtualFile(artifact);
+		return getXmlFile(getVirtualFile(artifact));
+	}
+
+	private XmlFile getXmlFile(VirtualFile virtualFile) {
 		if (virtualFile != null) {
 			PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
 			return (XmlFile) psiFile;
@@ -88,6 +95,24 @@ public abstract class BaseAction extends DumbAwareAction {
 		return file;
 	}
 
+	/**
+	 * @return the topmost parent of the current project which is a part of this workspace, or the project itself
+	 */
+	protected MavenProject getTopmostParentProject() {
+		MavenProjectsManager projectsManager = MavenProjectsManager.getInstance(project);
+		MavenProject result = mavenProject;
+		MavenId parentId = mavenProject.getParentId();
+		while (parentId != null) {
+			MavenProject parent = projectsManager.findProject(parentId);
+			if (parent == null || parent == result) {
+				break;
+			}
+			result = parent;
+			parentId = parent.getParentId();
+		}
+		return result;
+	}
+
 	protected boolean isSameDependency(MavenArtifact parent, MavenDomShortArtifactCoordinates mavenDomDependency) {
 		GenericDomValue artifactID = mavenDomDependency.getArtifactId();
 		GenericDomValue<String> groupId = mavenDomDependency.getGroupId();
@@ -0,0 +1,93 @@
+package krasa.mavenrun.analyzer.action;
+
+import java.awt.*;
+import java.util.*;
+import java.util.List;
+
+import krasa.mavenrun.analyzer.DependencyAnalyzer;
+import krasa.mavenrun.analyzer.ExclusionsSolver;
+
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.openapi.actionSystem.ActionManager;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.DefaultActionGroup;
+import com.intellij.openapi.project.DumbAwareAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.ui.PopupHandler;
+
+/**
+ * @author Vojtech Krasa
+ */
+public abstract class ConflictsListPopupHandler extends PopupHandler {
+	private final Project project;
+	private final MavenProject mavenProject;
+
+	public ConflictsListPopupHandler(Project project, MavenProject mavenProject) {
+		this.project = project;
+		this.mavenProject = mavenProject;
+	}
+
+	public void invokePopup(final Component comp, final int x, final int y) {
+		final Map<String, List<MavenArtifactNode>> selectedConflicts = getSelectedConflicts();
+		DefaultActionGroup actionGroup = new DefaultActionGroup();
+
+		if (!selectedConflicts.isEmpty()) {
+			actionGroup.add(createExcludeAction("Exclude to Converge Selected", ExclusionsSolver.maxVersions(selectedConflicts)));
+		}
+		if (selectedConflicts.size() == 1) {
+			actionGroup.add(new DumbAwareAction("Exclude to Converge Selected to Version...") {
+				@Override
+				public void actionPerformed(AnActionEvent e) {
+					Map.Entry<String, List<MavenArtifactNode>> conflict = selectedConflicts.entrySet().iterator().next();
+					String version = chooseVersion(conflict.getKey(), conflict.getValue());
+					if (version != null) {
+						createExcludeAction(getTemplatePresentation().getText(),
+								Collections.singletonMap(conflict.getKey(), version)).actionPerformed(e);
+					}
+				}
+			});
+		}
+		actionGroup.add(createExcludeAction("Exclude to Converge All Conflicts", ExclusionsSolver.maxVersions(getAllConflicts())));
+		actionGroup.addSeparator();
+		if (!selectedConflicts.isEmpty()) {
+			actionGroup.add(new PinVersionsAction(project, mavenProject, "Pin Selected in dependencyManagement...",
+					selectedConflicts));
+		}
+		actionGroup.add(new PinVersionsAction(project, mavenProject, "Pin All Conflicts in dependencyManagement...",
+				getAllConflicts()));
+
+		ActionManager.getInstance().createActionPopupMenu("", actionGroup).getComponent().show(comp, x, y);
+	}
+
+	private String chooseVersion(String key, List<MavenArtifactNode> nodes) {
+		String maxVersion = DependencyAnalyzer.sortByVersion(nodes);
+		Set<String> versions = new LinkedHashSet<String>();
+		for (MavenArtifactNode node : nodes) {
+			versions.add(node.getArtifact().getVersion());
+		}
+		String[] values = versions.toArray(new String[versions.size()]);
+		int i = Messages.showChooseDialog(project, "Version of " + key + " to keep:", "Exclude to Converge",
+				Messages.getQuestionIcon(), values, maxVersion);
+		return i < 0 ? null : values[i];
+	}
+
+	private ExcludeToConvergeAction createExcludeAction(String text, Map<String, String> targetVersions) {
+		return new ExcludeToConvergeAction(project, mavenProject, text, getDependencyTree(), targetVersions) {
+			@Override
+			public void dependenciesExcluded(ExclusionsSolver.Solution solution) {
+				ConflictsListPopupHandler.this.dependenciesExcluded(solution);
+			}
+		};
+	}
+
+	protected abstract List<MavenArtifactNode> getDependencyTree();
+
+	protected abstract Map<String, List<MavenArtifactNode>> getAllConflicts();
+
+	protected abstract Map<String, List<MavenArtifactNode>> getSelectedConflicts();
+
+	protected abstract void dependenciesExcluded(ExclusionsSolver.Solution solution);
+}
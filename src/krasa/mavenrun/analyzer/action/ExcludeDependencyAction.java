@@ -1,5 +1,7 @@
 package krasa.mavenrun.analyzer.action;
 
+import krasa.mavenrun.diagnostics.Metrics;
+
 import org.jetbrains.idea.maven.dom.model.*;
 import org.jetbrains.idea.maven.model.MavenArtifact;
 import org.jetbrains.idea.maven.model.MavenArtifactNode;
@@ -19,15 +21,28 @@ import com.intellij.util.xml.DomFileElement;
  */
 public abstract class ExcludeDependencyAction extends BaseAction {
 
+	protected enum ExclusionResult {
+		ADDED, ALREADY_PRESENT, NOT_APPLIED
+	}
+
 	public ExcludeDependencyAction(Project project, MavenProject mavenProject, MavenArtifactNode myTreeNode) {
 		super(project, mavenProject, myTreeNode, "Exclude");
 	}
 
 	private void exclude() {
-		final MavenArtifact artifactToExclude = mavenArtifactNode.getArtifact();
-		final MavenArtifactNode oldestParent = getOldestParentMavenArtifact();
+		if (exclude(getOldestParentMavenArtifact(), mavenArtifactNode.getArtifact()) == ExclusionResult.ADDED) {
+			dependencyExcluded();
+		}
+	}
 
+	/**
+	 * must be called inside of a write action
+	 * 
+	 * @return NOT_APPLIED when the pom or the dependency was not found
+	 */
+	protected ExclusionResult exclude(MavenArtifactNode oldestParent, MavenArtifact artifactToExclude) {
 		DomFileElement domFileElement = getDomFileElement(oldestParent);
+		ExclusionResult result = ExclusionResult.NOT_APPLIED;
 
 		if (domFileElement != null) {
 			final MavenDomProjectModel rootElement = (MavenDomProjectModel) domFileElement.getRootElement();
@@ -38,13 +53,12 @@ public abstract class ExcludeDependencyAction extends BaseAction {
 				if (isSameDependency(oldestParent.getArtifact(), mavenDomDependency)) {
 					found = true;
 					final MavenDomExclusions exclusions = mavenDomDependency.getExclusions();
-					for (MavenDomExclusion mavenDomExclusion : exclusions.getExclusions()) {
-						if (isSameDependency(artifactToExclude, mavenDomExclusion)) {
-							return;
-						}
+					if (!isExcluded(artifactToExclude, exclusions)) {
+						createExclusion(artifactToExclude, exclusions);
+						result = ExclusionResult.ADDED;
+					} else if (result != ExclusionResult.ADDED) {
+						result = ExclusionResult.ALREADY_PRESENT;
 					}
-					createExclusion(artifactToExclude, exclusions);
-					dependencyExcluded();
 				}
 			}
 			if (!found) {
@@ -67,7 +81,16 @@ public abstract class ExcludeDependencyAction extends BaseAction {
 				}
 			});
 		}
+		return result;
+	}
 
+	private boolean isExcluded(MavenArtifact artifactToExclude, MavenDomExclusions exclusions) {
+		for (MavenDomExclusion mavenDomExclusion : exclusions.getExclusions()) {
+			if (isSameDependency(artifactToExclude, mavenDomExclusion)) {
+				return true;
+			}
+		}
+		return false;
 	}
 
 	private void createExclusion(MavenArtifact artifactToExclude, MavenDomExclusions exclusions) {
@@ -83,7 +106,12 @@ public abstract class ExcludeDependencyAction extends BaseAction {
 			public void run() {
 				ApplicationManager.getApplication().runWriteAction(new Runnable() {
 					public void run() {
-						exclude();
+						long start = Metrics.EXCLUDE.start();
+						try {
+							exclude();
+						} finally {
+							Metrics.EXCLUDE.stop(start);
+						}
 					}
 				});
 			}
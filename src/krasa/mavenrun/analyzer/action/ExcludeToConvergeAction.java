@@ -0,0 +1,122 @@
+package krasa.mavenrun.analyzer.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import krasa.mavenrun.analyzer.ExclusionsSolver;
+import krasa.mavenrun.diagnostics.Metrics;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+
+/**
+ * Computes exclusions for all given conflicts with {@link ExclusionsSolver} and adds them in one undoable command.
+ *
+ * @author Vojtech Krasa
+ */
+public abstract class ExcludeToConvergeAction extends ExcludeDependencyAction {
+
+	private final List<MavenArtifactNode> dependencyTree;
+	private final Map<String, String> targetVersions;
+
+	public ExcludeToConvergeAction(Project project, MavenProject mavenProject, String text,
+			List<MavenArtifactNode> dependencyTree, Map<String, String> targetVersions) {
+		super(project, mavenProject, null);
+		this.dependencyTree = dependencyTree;
+		this.targetVersions = targetVersions;
+		getTemplatePresentation().setText(text);
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		final ExclusionsSolver.Solution[] solution = new ExclusionsSolver.Solution[1];
+		ProgressManager.getInstance().runProcessWithProgressSynchronously(new Runnable() {
+			@Override
+			public void run() {
+				long start = Metrics.EXCLUDE_TO_CONVERGE.start();
+				try {
+					solution[0] = new ExclusionsSolver(dependencyTree).solve(targetVersions,
+							ExclusionsSolver.DEFAULT_TIME_BUDGET_MILLIS);
+				} finally {
+					Metrics.EXCLUDE_TO_CONVERGE.stop(start);
+				}
+			}
+		}, "Computing Exclusions", false, project);
+		if (solution[0] == null) {
+			return;
+		}
+		if (!confirm(solution[0])) {
+			return;
+		}
+		apply(solution[0]);
+	}
+
+	private boolean confirm(ExclusionsSolver.Solution solution) {
+		StringBuilder message = new StringBuilder();
+		if (solution.getExclusions().isEmpty()) {
+			message.append("No exclusions found.");
+		} else {
+			message.append("Add ").append(solution.getExclusions().size()).append(" exclusions:\n");
+			for (ExclusionsSolver.Exclusion exclusion : solution.getExclusions()) {
+				message.append("  ").append(exclusion).append("\n");
+			}
+		}
+		if (!solution.getUnresolved().isEmpty()) {
+			message.append("\nCannot be converged by exclusions:\n  ");
+			message.append(StringUtils.join(solution.getUnresolved(), "\n  "));
+			message.append("\n");
+		}
+		if (solution.isTimedOut()) {
+			message.append("\nTime budget exceeded, the result is partial.");
+		}
+		if (solution.getExclusions().isEmpty()) {
+			Messages.showInfoMessage(project, message.toString(), "Exclude to Converge");
+			return false;
+		}
+		return Messages.showOkCancelDialog(project, message.toString(), "Exclude to Converge",
+				Messages.getQuestionIcon()) == Messages.OK;
+	}
+
+	private void apply(final ExclusionsSolver.Solution solution) {
+		final List<ExclusionsSolver.Exclusion> failed = new ArrayList<ExclusionsSolver.Exclusion>();
+		// CommandProcessor for undo and formatting
+		CommandProcessor.getInstance().executeCommand(project, new Runnable() {
+			public void run() {
+				ApplicationManager.getApplication().runWriteAction(new Runnable() {
+					public void run() {
+						for (ExclusionsSolver.Exclusion exclusion : solution.getExclusions()) {
+							// already present means the tree is older than the pom, it is converged anyway
+							ExclusionResult result = exclude(exclusion.getDependency(),
+									exclusion.getExcludedArtifact());
+							if (result == ExclusionResult.NOT_APPLIED) {
+								failed.add(exclusion);
+							}
+						}
+					}
+				});
+			}
+		}, "Exclude to Converge", "MavenRunHelper");
+		if (!failed.isEmpty()) {
+			// the conflicts are not converged, keep them listed
+			Messages.showWarningDialog(project, "Not added:\n  " + StringUtils.join(failed, "\n  "),
+					"Exclude to Converge");
+			return;
+		}
+		dependenciesExcluded(solution);
+	}
+
+	@Override
+	public void dependencyExcluded() {
+	}
+
+	public abstract void dependenciesExcluded(ExclusionsSolver.Solution solution);
+}
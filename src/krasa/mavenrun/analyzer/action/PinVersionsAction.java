@@ -0,0 +1,155 @@
+package krasa.mavenrun.analyzer.action;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import krasa.mavenrun.analyzer.DependencyAnalyzer;
+
+import org.jetbrains.idea.maven.dom.model.MavenDomDependencies;
+import org.jetbrains.idea.maven.dom.model.MavenDomDependency;
+import org.jetbrains.idea.maven.dom.model.MavenDomProjectModel;
+import org.jetbrains.idea.maven.model.MavenArtifact;
+import org.jetbrains.idea.maven.model.MavenArtifactNode;
+import org.jetbrains.idea.maven.project.MavenProject;
+
+import com.intellij.notification.Notification;
+import com.intellij.notification.NotificationType;
+import com.intellij.notification.Notifications;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.command.CommandProcessor;
+import com.intellij.openapi.project.Project;
+import com.intellij.util.xml.DomFileElement;
+
+/**
+ * Pins the highest version of each conflict in {@code <dependencyManagement>} of the topmost parent pom.
+ *
+ * @author Vojtech Krasa
+ */
+public class PinVersionsAction extends BaseAction {
+
+	private final Map<String, List<MavenArtifactNode>> conflicts;
+
+	public PinVersionsAction(Project project, MavenProject mavenProject, String text,
+			Map<String, List<MavenArtifactNode>> conflicts) {
+		super(project, mavenProject, null, text);
+		this.conflicts = conflicts;
+	}
+
+	@Override
+	public void actionPerformed(AnActionEvent e) {
+		final MavenProject parent = getTopmostParentProject();
+		DomFileElement domFileElement = getDomFileElement(parent.getFile());
+		if (domFileElement == null) {
+			notify("Pom file not found", NotificationType.WARNING);
+			return;
+		}
+		final MavenDomProjectModel rootElement = (MavenDomProjectModel) domFileElement.getRootElement();
+		final List<ManagedDependency> managedDependencies = getManagedDependencies(rootElement);
+		if (managedDependencies.isEmpty()) {
+			notify("All versions are already pinned in " + parent.getPath(), NotificationType.INFORMATION);
+			return;
+		}
+
+		if (!new PreviewDialog(project, getTemplatePresentation().getText(), preview(parent, managedDependencies)).showAndConfirm()) {
+			return;
+		}
+
+		// CommandProcessor for undo and formatting
+		CommandProcessor.getInstance().executeCommand(project, new Runnable() {
+			public void run() {
+				ApplicationManager.getApplication().runWriteAction(new Runnable() {
+					public void run() {
+						write(rootElement, managedDependencies);
+					}
+				});
+			}
+		}, "Pin Versions", "MavenRunHelper");
+		notify(managedDependencies.size() + " versions pinned in " + parent.getPath()
+				+ ", reimport the project to see the result", NotificationType.INFORMATION);
+	}
+
+	private List<ManagedDependency> getManagedDependencies(MavenDomProjectModel rootElement) {
+		List<MavenDomDependency> existing = rootElement.getDependencyManagement().getDependencies().getDependencies();
+		List<ManagedDependency> result = new ArrayList<ManagedDependency>();
+		for (Map.Entry<String, List<MavenArtifactNode>> conflict : conflicts.entrySet()) {
+			String version = DependencyAnalyzer.sortByVersion(conflict.getValue());
+			MavenArtifact artifact = conflict.getValue().get(0).getArtifact();
+
+			ManagedDependency managedDependency = new ManagedDependency(artifact, version);
+			for (MavenDomDependency mavenDomDependency : existing) {
+				if (isSameDependency(artifact, mavenDomDependency)) {
+					managedDependency.existing = mavenDomDependency;
+					managedDependency.oldVersion = mavenDomDependency.getVersion().getStringValue();
+				}
+			}
+			if (!version.equals(managedDependency.oldVersion)) {
+				result.add(managedDependency);
+			}
+		}
+		return result;
+	}
+
+	private String preview(MavenProject parent, List<ManagedDependency> managedDependencies) {
+		StringBuilder sb = new StringBuilder();
+		sb.append("--- ").append(parent.getPath()).append("\n");
+		sb.append("+++ ").append(parent.getPath()).append("\n");
+		sb.append("  <dependencyManagement>\n");
+		sb.append("    <dependencies>\n");
+		for (ManagedDependency dependency : managedDependencies) {
+			if (dependency.existing != null) {
+				sb.append("      <dependency> ").append(dependency.groupId).append(":").append(dependency.artifactId).append("\n");
+				sb.append("-       <version>").append(dependency.oldVersion).append("</version>\n");
+				sb.append("+       <version>").append(dependency.version).append("</version>\n");
+			} else {
+				sb.append("+     <dependency>\n");
+				sb.append("+       <groupId>").append(dependency.groupId).append("</groupId>\n");
+				sb.append("+       <artifactId>").append(dependency.artifactId).append("</artifactId>\n");
+				sb.append("+       <version>").append(dependency.version).append("</version>\n");
+				sb.append("+     </dependency>\n");
+			}
+		}
+		sb.append("    </dependencies>\n");
+		sb.append("  </dependencyManagement>\n");
+		return sb.toString();
+	}
+
+	private void write(MavenDomProjectModel rootElement, List<ManagedDependency> managedDependencies) {
+		MavenDomDependencies dependencies = rootElement.getDependencyManagement().getDependencies();
+		for (ManagedDependency managedDependency : managedDependencies) {
+			MavenDomDependency dependency = managedDependency.existing;
+			if (dependency == null || !dependency.isValid()) {
+				dependency = dependencies.addDependency();
+				dependency.getGroupId().setStringValue(managedDependency.groupId);
+				dependency.getArtifactId().setStringValue(managedDependency.artifactId);
+			}
+			dependency.getVersion().setStringValue(managedDependency.version);
+		}
+	}
+
+	private void notify(String content, NotificationType type) {
+		final Notification notification = new Notification(MAVEN_HELPER_DEPENDENCY_ANALYZER_NOTIFICATION, "",
+				content, type);
+		ApplicationManager.getApplication().invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				Notifications.Bus.notify(notification, project);
+			}
+		});
+	}
+
+	private static class ManagedDependency {
+		private final String groupId;
+		private final String artifactId;
+		private final String version;
+		private MavenDomDependency existing;
+		private String oldVersion;
+
+		private ManagedDependency(MavenArtifact artifact, String version) {
+			this.groupId = artifact.getGroupId();
+			this.artifactId = artifact.getArtifactId();
+			this.version = version;
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package krasa.mavenrun.analyzer.action;
+
+import java.awt.*;
+
+import javax.swing.*;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.components.JBScrollPane;
+
+/**
+ * Read-only text preview of a change, OK applies it.
+ *
+ * @author Vojtech Krasa
+ */
+public class PreviewDialog extends DialogWrapper {
+	private final String text;
+
+	public PreviewDialog(Project project, String title, String text) {
+		super(project);
+		this.text = text;
+		setTitle(title);
+		init();
+	}
+
+	@Nullable
+	@Override
+	protected JComponent createCenterPanel() {
+		JTextArea textArea = new JTextArea(text);
+		textArea.setEditable(false);
+		textArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, textArea.getFont().getSize()));
+		JBScrollPane scrollPane = new JBScrollPane(textArea);
+		scrollPane.setPreferredSize(new Dimension(700, 400));
+		return scrollPane;
+	}
+
+	public boolean showAndConfirm() {
+		show();
+		return isOK();
+	}
+}
@@ -0,0 +1,33 @@
+package krasa.mavenrun.diagnostics;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * @author Vojtech Krasa
+ */
+public class Counter {
+	private final String name;
+	private final AtomicLong value = new AtomicLong();
+
+	Counter(String name) {
+		this.name = name;
+	}
+
+	public void increment() {
+		if (Metrics.isEnabled()) {
+			value.incrementAndGet();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public long get() {
+		return value.get();
+	}
+
+	void reset() {
+		value.set(0);
+	}
+}
@@ -0,0 +1,27 @@
+package krasa.mavenrun.diagnostics;
+
+import org.jetbrains.annotations.NotNull;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+
+/**
+ * "Maven Helper Diagnostics" tool window.
+ *
+ * @author Vojtech Krasa
+ */
+public class DiagnosticsToolWindowFactory implements ToolWindowFactory, DumbAware {
+
+	@Override
+	public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+		ContentFactory contentFactory = ContentFactory.SERVICE.getInstance();
+		Content metrics = contentFactory.createContent(new MetricsPanel(project), "Metrics", false);
+		toolWindow.getContentManager().addContent(metrics);
+		Content snapshots = contentFactory.createContent(new StallSnapshotsPanel(project), "EDT Snapshots", false);
+		toolWindow.getContentManager().addContent(snapshots);
+	}
+}
@@ -0,0 +1,146 @@
+package krasa.mavenrun.diagnostics;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+
+import javax.swing.*;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+/**
+ * Samples the EDT while an instrumented plugin operation ({@link Metric#start()} - {@link Metric#stop(long)}) runs on
+ * it, and takes a stack snapshot once the operation blocks the EDT longer than the threshold. Disabled by default,
+ * enable it in the diagnostics tool window or by <code>-Dmaven.helper.edt.watchdog=&lt;threshold ms&gt;</code>.
+ *
+ * @author Vojtech Krasa
+ */
+public class EdtWatchdog {
+	private static final Logger LOG = Logger.getInstance(EdtWatchdog.class);
+	private static final String PLUGIN_PACKAGE = "krasa.mavenrun.";
+	public static final int DEFAULT_THRESHOLD_MILLIS = 300;
+	private static final int SAMPLE_MILLIS = 50;
+	private static final int MAX_SNAPSHOTS = 50;
+
+	private static volatile boolean enabled;
+	private static volatile int thresholdMillis = DEFAULT_THRESHOLD_MILLIS;
+	private static Thread sampler;
+
+	/** accessed only from the EDT */
+	private static int depth;
+	private static volatile Thread edt;
+	private static volatile String operation;
+	private static volatile long operationStart;
+	private static volatile long operationId;
+
+	private static final LinkedList<StallSnapshot> snapshots = new LinkedList<StallSnapshot>();
+
+	static {
+		int threshold = Integer.getInteger("maven.helper.edt.watchdog", 0);
+		if (threshold > 0) {
+			setEnabled(true, threshold);
+		}
+	}
+
+	static void enter(String name) {
+		if (!enabled || !SwingUtilities.isEventDispatchThread()) {
+			return;
+		}
+		if (depth++ == 0) {
+			edt = Thread.currentThread();
+			operationStart = System.nanoTime();
+			operationId++;
+			operation = name;
+		}
+	}
+
+	static void exit() {
+		if (depth == 0 || !SwingUtilities.isEventDispatchThread()) {
+			return;
+		}
+		if (--depth == 0) {
+			operation = null;
+		}
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static int getThresholdMillis() {
+		return thresholdMillis;
+	}
+
+	public static synchronized void setEnabled(boolean enable, int threshold) {
+		thresholdMillis = threshold;
+		enabled = enable;
+		if (enable && sampler == null) {
+			sampler = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					sample();
+				}
+			}, "Maven Helper EDT watchdog");
+			sampler.setDaemon(true);
+			sampler.start();
+		}
+	}
+
+	private static void sample() {
+		long snapshotId = -1;
+		while (true) {
+			synchronized (EdtWatchdog.class) {
+				if (!enabled) {
+					sampler = null;
+					return;
+				}
+			}
+			try {
+				Thread.sleep(SAMPLE_MILLIS);
+			} catch (InterruptedException e) {
+				return;
+			}
+			String name = operation;
+			long id = operationId;
+			long stalledMillis = (System.nanoTime() - operationStart) / 1000000;
+			if (name == null || id == snapshotId || stalledMillis < thresholdMillis) {
+				continue;
+			}
+			StackTraceElement[] stackTrace = edt.getStackTrace();
+			if (id != operationId || operation == null || !hasPluginFrame(stackTrace)) {
+				continue;
+			}
+			snapshotId = id;
+			StallSnapshot snapshot = new StallSnapshot(name, System.currentTimeMillis(), stalledMillis, stackTrace);
+			LOG.info(snapshot.getStackTraceText());
+			synchronized (snapshots) {
+				snapshots.addFirst(snapshot);
+				if (snapshots.size() > MAX_SNAPSHOTS) {
+					snapshots.removeLast();
+				}
+			}
+		}
+	}
+
+	static boolean hasPluginFrame(StackTraceElement[] stackTrace) {
+		for (StackTraceElement element : stackTrace) {
+			if (element.getClassName().startsWith(PLUGIN_PACKAGE)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/** newest first */
+	public static List<StallSnapshot> getSnapshots() {
+		synchronized (snapshots) {
+			return new ArrayList<StallSnapshot>(snapshots);
+		}
+	}
+
+	public static void clearSnapshots() {
+		synchronized (snapshots) {
+			snapshots.clear();
+		}
+	}
+}
@@ -0,0 +1,50 @@
+package krasa.mavenrun.diagnostics;
+
+/**
+ * Latency of one instrumented code path. Usage:
+ * 
+ * <pre>
+ * long start = Metrics.GET_ACTIONS.start();
+ * try {
+ * 	...
+ * } finally {
+ * 	Metrics.GET_ACTIONS.stop(start);
+ * }
+ * </pre>
+ *
+ * @author Vojtech Krasa
+ */
+public class Metric {
+	private final String name;
+	private final LatencyHistogram histogram = new LatencyHistogram();
+
+	Metric(String name) {
+		this.name = name;
+	}
+
+	/**
+	 * @return start time for {@link #stop(long)}, 0 when recording is disabled
+	 */
+	public long start() {
+		EdtWatchdog.enter(name);
+		return Metrics.start();
+	}
+
+	/**
+	 * @param start from {@link #start()}
+	 */
+	public void stop(long start) {
+		EdtWatchdog.exit();
+		if (start != 0) {
+			histogram.record((System.nanoTime() - start) / 1000);
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LatencyHistogram getHistogram() {
+		return histogram;
+	}
+}
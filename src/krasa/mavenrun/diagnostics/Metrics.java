@@ -0,0 +1,121 @@
+package krasa.mavenrun.diagnostics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Internal latency metrics of plugin hot paths. Recording is enabled only while a diagnostics panel is showing,
+ * otherwise {@link Metric#start()} only reads volatile flags and nothing is allocated or recorded.
+ *
+ * @author Vojtech Krasa
+ */
+public class Metrics {
+	private static final List<Metric> metrics = new CopyOnWriteArrayList<Metric>();
+	private static final List<Counter> counters = new CopyOnWriteArrayList<Counter>();
+	private static final AtomicInteger openPanels = new AtomicInteger();
+	private static volatile boolean enabled;
+
+	public static final Metric GET_ACTIONS = metric("MainMavenActionGroup.getActions");
+	public static final Counter ACTIONS_CACHE_HIT = counter("ActionsCache hit");
+	public static final Counter ACTIONS_CACHE_MISS = counter("ActionsCache miss");
+	public static final Metric TEST_FILE_UPDATE = metric("RunTestFileAction.update");
+	public static final Metric ANALYZER_INITIALIZE_MODEL = metric("GuiForm.initializeModel");
+	public static final Metric ANALYZER_UPDATE_LEFT_PANEL = metric("GuiForm.updateLeftPanel");
+	public static final Metric EXCLUDE = metric("ExcludeDependencyAction.exclude");
+	public static final Metric EXCLUDE_TO_CONVERGE = metric("ExclusionsSolver.solve");
+
+	public static Metric metric(String name) {
+		Metric metric = new Metric(name);
+		metrics.add(metric);
+		return metric;
+	}
+
+	public static Counter counter(String name) {
+		Counter counter = new Counter(name);
+		counters.add(counter);
+		return counter;
+	}
+
+	static long start() {
+		if (!enabled) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		return now == 0 ? 1 : now;
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	public static void panelShown() {
+		enabled = openPanels.incrementAndGet() > 0;
+	}
+
+	public static void panelHidden() {
+		enabled = openPanels.decrementAndGet() > 0;
+	}
+
+	public static List<Metric> getMetrics() {
+		return Collections.unmodifiableList(new ArrayList<Metric>(metrics));
+	}
+
+	public static List<Counter> getCounters() {
+		return Collections.unmodifiableList(new ArrayList<Counter>(counters));
+	}
+
+	public static void reset() {
+		for (Metric metric : metrics) {
+			metric.getHistogram().reset();
+		}
+		for (Counter counter : counters) {
+			counter.reset();
+		}
+	}
+
+	/** times in microseconds */
+	public static String toJson() {
+		StringBuilder sb = new StringBuilder("{\n  \"metrics\": [");
+		boolean first = true;
+		for (Metric metric : metrics) {
+			LatencyHistogram histogram = metric.getHistogram();
+			sb.append(first ? "\n" : ",\n");
+			first = false;
+			sb.append("    {\"name\": ").append(quote(metric.getName()));
+			sb.append(", \"count\": ").append(histogram.getCount());
+			sb.append(", \"totalMicros\": ").append(histogram.getSum());
+			sb.append(", \"p50Micros\": ").append(histogram.getPercentile(50));
+			sb.append(", \"p90Micros\": ").append(histogram.getPercentile(90));
+			sb.append(", \"p99Micros\": ").append(histogram.getPercentile(99));
+			sb.append(", \"maxMicros\": ").append(histogram.getMax()).append("}");
+		}
+		sb.append("\n  ],\n  \"counters\": [");
+		first = true;
+		for (Counter counter : counters) {
+			sb.append(first ? "\n" : ",\n");
+			first = false;
+			sb.append("    {\"name\": ").append(quote(counter.getName()));
+			sb.append(", \"value\": ").append(counter.get()).append("}");
+		}
+		sb.append("\n  ]\n}\n");
+		return sb.toString();
+	}
+
+	static String quote(String s) {
+		StringBuilder sb = new StringBuilder("\"");
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				sb.append('\\').append(c);
+			} else if (c < 0x20) {
+				sb.append(String.format("\\u%04x", (int) c));
+			} else {
+				sb.append(c);
+			}
+		}
+		return sb.append('"').toString();
+	}
+}
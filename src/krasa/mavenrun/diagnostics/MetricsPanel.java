@@ -0,0 +1,131 @@
+package krasa.mavenrun.diagnostics;
+
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.io.File;
+import java.io.IOException;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+/**
+ * Live view of {@link Metrics}, recording is on only while this panel is showing.
+ *
+ * @author Vojtech Krasa
+ */
+public class MetricsPanel extends JPanel {
+	private static final String[] COLUMNS = { "Metric", "Count", "p50 [ms]", "p90 [ms]", "p99 [ms]", "Max [ms]",
+			"Total [ms]" };
+	private static final int REFRESH_MILLIS = 1000;
+
+	private final Project project;
+	private final DefaultTableModel tableModel = new DefaultTableModel(COLUMNS, 0) {
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+	};
+	private final Timer timer;
+	private boolean shown;
+
+	public MetricsPanel(Project project) {
+		super(new BorderLayout());
+		this.project = project;
+
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		JButton reset = new JButton("Reset");
+		reset.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				Metrics.reset();
+				refresh();
+			}
+		});
+		JButton export = new JButton("Export JSON...");
+		export.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				export();
+			}
+		});
+		buttons.add(reset);
+		buttons.add(export);
+		buttons.add(new JLabel("Recording while this panel is visible"));
+		add(buttons, BorderLayout.NORTH);
+		add(new JBScrollPane(new JBTable(tableModel)), BorderLayout.CENTER);
+
+		timer = new Timer(REFRESH_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				refresh();
+			}
+		});
+		addHierarchyListener(new HierarchyListener() {
+			@Override
+			public void hierarchyChanged(HierarchyEvent e) {
+				if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+					setShown(isShowing());
+				}
+			}
+		});
+	}
+
+	private void setShown(boolean showing) {
+		if (showing == shown) {
+			return;
+		}
+		shown = showing;
+		if (showing) {
+			Metrics.panelShown();
+			refresh();
+			timer.start();
+		} else {
+			Metrics.panelHidden();
+			timer.stop();
+		}
+	}
+
+	private void refresh() {
+		tableModel.setRowCount(0);
+		for (Metric metric : Metrics.getMetrics()) {
+			LatencyHistogram histogram = metric.getHistogram();
+			tableModel.addRow(new Object[] { metric.getName(), histogram.getCount(),
+					millis(histogram.getPercentile(50)), millis(histogram.getPercentile(90)),
+					millis(histogram.getPercentile(99)), millis(histogram.getMax()), millis(histogram.getSum()) });
+		}
+		for (Counter counter : Metrics.getCounters()) {
+			tableModel.addRow(new Object[] { counter.getName(), counter.get(), null, null, null, null, null });
+		}
+	}
+
+	private static String millis(long micros) {
+		return String.format("%.3f", micros / 1000.0);
+	}
+
+	private void export() {
+		VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(
+				new FileSaverDescriptor("Export Metrics", "Save metrics as JSON", "json"), project).save(null,
+				"maven-helper-metrics.json");
+		if (wrapper == null) {
+			return;
+		}
+		File file = wrapper.getFile();
+		try {
+			FileUtil.writeToFile(file, Metrics.toJson());
+		} catch (IOException e) {
+			Messages.showErrorDialog(project, e.getMessage(), "Export Metrics");
+		}
+	}
+}
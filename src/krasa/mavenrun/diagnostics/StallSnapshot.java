@@ -0,0 +1,55 @@
+package krasa.mavenrun.diagnostics;
+
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+/**
+ * EDT stack taken while a plugin operation was blocking the EDT.
+ *
+ * @author Vojtech Krasa
+ */
+public class StallSnapshot {
+	private final String operation;
+	private final long timestamp;
+	private final long stalledMillis;
+	private final StackTraceElement[] stackTrace;
+
+	public StallSnapshot(String operation, long timestamp, long stalledMillis, StackTraceElement[] stackTrace) {
+		this.operation = operation;
+		this.timestamp = timestamp;
+		this.stalledMillis = stalledMillis;
+		this.stackTrace = stackTrace;
+	}
+
+	public String getOperation() {
+		return operation;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public long getStalledMillis() {
+		return stalledMillis;
+	}
+
+	public StackTraceElement[] getStackTrace() {
+		return stackTrace;
+	}
+
+	public String getStackTraceText() {
+		StringBuilder sb = new StringBuilder();
+		sb.append(operation).append(" blocked the EDT for ").append(stalledMillis).append(" ms at ");
+		sb.append(new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS").format(new Date(timestamp))).append("\n");
+		for (StackTraceElement element : stackTrace) {
+			sb.append("\tat ").append(element).append("\n");
+		}
+		return sb.toString();
+	}
+
+	@Override
+	public String toString() {
+		return new SimpleDateFormat("HH:mm:ss").format(new Date(timestamp)) + " " + operation + " " + stalledMillis
+				+ " ms";
+	}
+}
@@ -0,0 +1,156 @@
+package krasa.mavenrun.diagnostics;
+
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.io.IOException;
+import java.util.List;
+
+import javax.swing.*;
+import javax.swing.event.ChangeEvent;
+import javax.swing.event.ChangeListener;
+import javax.swing.event.ListSelectionEvent;
+import javax.swing.event.ListSelectionListener;
+
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+import com.intellij.ui.components.JBList;
+import com.intellij.ui.components.JBScrollPane;
+
+/**
+ * Stack snapshots of {@link EdtWatchdog}.
+ *
+ * @author Vojtech Krasa
+ */
+public class StallSnapshotsPanel extends JPanel {
+	private static final int REFRESH_MILLIS = 1000;
+
+	private final Project project;
+	private final DefaultListModel listModel = new DefaultListModel();
+	private final JBList list = new JBList(listModel);
+	private final JTextArea stackTrace = new JTextArea();
+	private final JCheckBox enabled = new JCheckBox("Watch EDT", EdtWatchdog.isEnabled());
+	private final JSpinner threshold = new JSpinner(new SpinnerNumberModel(EdtWatchdog.getThresholdMillis(), 50,
+			60000, 50));
+	private final Timer timer;
+	private List<StallSnapshot> shownSnapshots;
+
+	public StallSnapshotsPanel(Project project) {
+		super(new BorderLayout());
+		this.project = project;
+
+		ActionListener updateWatchdog = new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				EdtWatchdog.setEnabled(enabled.isSelected(), (Integer) threshold.getValue());
+			}
+		};
+		enabled.addActionListener(updateWatchdog);
+		threshold.addChangeListener(new ChangeListener() {
+			@Override
+			public void stateChanged(ChangeEvent e) {
+				if (enabled.isSelected()) {
+					EdtWatchdog.setEnabled(true, (Integer) threshold.getValue());
+				}
+			}
+		});
+		JButton clear = new JButton("Clear");
+		clear.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				EdtWatchdog.clearSnapshots();
+				refresh();
+			}
+		});
+		JButton export = new JButton("Export...");
+		export.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				export();
+			}
+		});
+		JPanel buttons = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		buttons.add(enabled);
+		buttons.add(new JLabel("Threshold [ms]:"));
+		buttons.add(threshold);
+		buttons.add(clear);
+		buttons.add(export);
+		add(buttons, BorderLayout.NORTH);
+
+		stackTrace.setEditable(false);
+		list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+		list.addListSelectionListener(new ListSelectionListener() {
+			@Override
+			public void valueChanged(ListSelectionEvent e) {
+				StallSnapshot snapshot = (StallSnapshot) list.getSelectedValue();
+				stackTrace.setText(snapshot == null ? "" : snapshot.getStackTraceText());
+				stackTrace.setCaretPosition(0);
+			}
+		});
+		JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JBScrollPane(list), new JBScrollPane(
+				stackTrace));
+		splitPane.setResizeWeight(0.3);
+		add(splitPane, BorderLayout.CENTER);
+
+		timer = new Timer(REFRESH_MILLIS, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				refresh();
+			}
+		});
+		addHierarchyListener(new HierarchyListener() {
+			@Override
+			public void hierarchyChanged(HierarchyEvent e) {
+				if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+					if (isShowing()) {
+						enabled.setSelected(EdtWatchdog.isEnabled());
+						refresh();
+						timer.start();
+					} else {
+						timer.stop();
+					}
+				}
+			}
+		});
+	}
+
+	private void refresh() {
+		List<StallSnapshot> snapshots = EdtWatchdog.getSnapshots();
+		if (snapshots.equals(shownSnapshots)) {
+			return;
+		}
+		shownSnapshots = snapshots;
+		Object selected = list.getSelectedValue();
+		listModel.clear();
+		for (StallSnapshot snapshot : snapshots) {
+			listModel.addElement(snapshot);
+		}
+		if (selected != null) {
+			list.setSelectedValue(selected, false);
+		}
+	}
+
+	private void export() {
+		VirtualFileWrapper wrapper = FileChooserFactory.getInstance().createSaveFileDialog(
+				new FileSaverDescriptor("Export EDT Snapshots", "Save EDT stack snapshots", "txt"), project).save(
+				null, "maven-helper-edt-snapshots.txt");
+		if (wrapper == null) {
+			return;
+		}
+		StringBuilder sb = new StringBuilder();
+		for (StallSnapshot snapshot : EdtWatchdog.getSnapshots()) {
+			sb.append(snapshot.getStackTraceText()).append("\n");
+		}
+		try {
+			FileUtil.writeToFile(wrapper.getFile(), sb.toString());
+		} catch (IOException e) {
+			Messages.showErrorDialog(project, e.getMessage(), "Export EDT Snapshots");
+		}
+	}
+}
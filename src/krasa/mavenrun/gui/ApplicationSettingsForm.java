@@ -9,6 +9,7 @@ import java.util.EventListener;
 import javax.swing.*;
 import javax.swing.event.ListDataListener;
 
+import krasa.mavenrun.action.BuildCache;
 import krasa.mavenrun.model.ApplicationSettings;
 import krasa.mavenrun.model.Goal;
 
@@ -33,6 +34,11 @@ public class ApplicationSettingsForm {
 	private JList pluginAwareGoals;
 	private JButton addGoal;
 	private JButton addPluginAware;
+	private JCheckBox useMavenDaemon;
+	private JTextField mavenDaemonExecutable;
+	private JCheckBox useBuildCache;
+	private JLabel buildCacheStatistics;
+	private JCheckBox debugForkedTests;
 
 	protected JBList focusedComponent;
 
@@ -198,12 +204,30 @@ public class ApplicationSettingsForm {
 	}
 
 	public void setData(ApplicationSettings data) {
+		useMavenDaemon.setSelected(data.isUseMavenDaemon());
+		mavenDaemonExecutable.setText(data.getMavenDaemonExecutable());
+		useBuildCache.setSelected(data.isUseBuildCache());
+		buildCacheStatistics.setText(BuildCache.getInstance().getStatistics());
+		debugForkedTests.setSelected(data.isDebugForkedTests());
 	}
 
 	public void getData(ApplicationSettings data) {
+		data.setUseMavenDaemon(useMavenDaemon.isSelected());
+		data.setMavenDaemonExecutable(mavenDaemonExecutable.getText());
+		data.setUseBuildCache(useBuildCache.isSelected());
+		data.setDebugForkedTests(debugForkedTests.isSelected());
 	}
 
 	public boolean isModified(ApplicationSettings data) {
+		if (useMavenDaemon.isSelected() != data.isUseMavenDaemon())
+			return true;
+		if (mavenDaemonExecutable.getText() != null ? !mavenDaemonExecutable.getText().equals(
+				data.getMavenDaemonExecutable()) : data.getMavenDaemonExecutable() != null)
+			return true;
+		if (useBuildCache.isSelected() != data.isUseBuildCache())
+			return true;
+		if (debugForkedTests.isSelected() != data.isDebugForkedTests())
+			return true;
 		return false;
 	}
 }
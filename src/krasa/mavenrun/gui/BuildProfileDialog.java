@@ -0,0 +1,153 @@
+package krasa.mavenrun.gui;
+
+import java.awt.*;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.text.SimpleDateFormat;
+import java.util.*;
+import java.util.List;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+import krasa.mavenrun.model.BuildProfile;
+import krasa.mavenrun.model.MojoTiming;
+
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.ui.ListCellRendererWrapper;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+/**
+ * Per-module/per-mojo times of recorded builds, optionally compared with an older run of the same goals.
+ *
+ * @author Vojtech Krasa
+ */
+public class BuildProfileDialog extends DialogWrapper {
+	private static final String[] COLUMNS = { "Module", "Mojo", "Execution", "Time [ms]", "Difference [ms]" };
+
+	private final List<BuildProfile> profiles;
+	private final JComboBox profileBox = new JComboBox();
+	private final JComboBox compareBox = new JComboBox();
+	private final DefaultTableModel tableModel = new DefaultTableModel(COLUMNS, 0) {
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+
+		@Override
+		public Class<?> getColumnClass(int columnIndex) {
+			return columnIndex >= 3 ? Long.class : String.class;
+		}
+	};
+	private final BuildProfileFlameGraph flameGraph = new BuildProfileFlameGraph();
+
+	public BuildProfileDialog(Project project, List<BuildProfile> profiles) {
+		super(project);
+		this.profiles = profiles;
+		setTitle("Maven Build Profiles");
+		setModal(false);
+		for (BuildProfile profile : profiles) {
+			profileBox.addItem(profile);
+		}
+		profileBox.setRenderer(new ProfileRenderer());
+		compareBox.setRenderer(new ProfileRenderer());
+		profileBox.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				updateCompareBox();
+				updateTable();
+			}
+		});
+		compareBox.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				updateTable();
+			}
+		});
+		updateCompareBox();
+		updateTable();
+		init();
+	}
+
+	private void updateCompareBox() {
+		BuildProfile selected = (BuildProfile) profileBox.getSelectedItem();
+		compareBox.removeAllItems();
+		compareBox.addItem(null);
+		if (selected != null) {
+			for (BuildProfile profile : profiles) {
+				if (profile != selected && profile.getKey().equals(selected.getKey())) {
+					compareBox.addItem(profile);
+				}
+			}
+		}
+	}
+
+	private void updateTable() {
+		BuildProfile selected = (BuildProfile) profileBox.getSelectedItem();
+		BuildProfile compared = (BuildProfile) compareBox.getSelectedItem();
+		tableModel.setRowCount(0);
+		flameGraph.setProfile(selected);
+		if (selected == null) {
+			return;
+		}
+		Map<String, Long> comparedMillis = new HashMap<String, Long>();
+		if (compared != null) {
+			for (MojoTiming mojo : compared.getMojos()) {
+				comparedMillis.put(mojo.getKey(), mojo.getDurationMillis());
+			}
+		}
+		List<MojoTiming> mojos = new ArrayList<MojoTiming>(selected.getMojos());
+		Collections.sort(mojos, new Comparator<MojoTiming>() {
+			@Override
+			public int compare(MojoTiming o1, MojoTiming o2) {
+				return Long.valueOf(o2.getDurationMillis()).compareTo(o1.getDurationMillis());
+			}
+		});
+		for (MojoTiming mojo : mojos) {
+			Long old = comparedMillis.get(mojo.getKey());
+			tableModel.addRow(new Object[] { mojo.getModule(), mojo.getMojo(), mojo.getExecution(),
+					mojo.getDurationMillis(), old == null ? null : mojo.getDurationMillis() - old });
+		}
+	}
+
+	@Nullable
+	@Override
+	protected JComponent createCenterPanel() {
+		JPanel top = new JPanel(new FlowLayout(FlowLayout.LEFT));
+		top.add(new JLabel("Build:"));
+		top.add(profileBox);
+		top.add(new JLabel("Compare with:"));
+		top.add(compareBox);
+
+		JBTable table = new JBTable(tableModel);
+		table.setAutoCreateRowSorter(true);
+		flameGraph.setToolTipText("");
+		JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT, new JBScrollPane(table), new JBScrollPane(
+				flameGraph));
+		splitPane.setResizeWeight(0.6);
+
+		JPanel panel = new JPanel(new BorderLayout());
+		panel.add(top, BorderLayout.NORTH);
+		panel.add(splitPane, BorderLayout.CENTER);
+		panel.setPreferredSize(new Dimension(900, 600));
+		return panel;
+	}
+
+	private static class ProfileRenderer extends ListCellRendererWrapper<BuildProfile> {
+		private final SimpleDateFormat format = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+		@Override
+		public void customize(JList list, BuildProfile value, int index, boolean selected, boolean hasFocus) {
+			if (value == null) {
+				setText("-");
+			} else {
+				setText(format.format(new Date(value.getTimestamp())) + "  " + value.getGoals() + "  "
+						+ value.getTotalMillis() + " ms" + (value.isSuccess() ? "" : " (failed)"));
+			}
+		}
+	}
+}
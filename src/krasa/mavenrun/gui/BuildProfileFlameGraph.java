@@ -0,0 +1,112 @@
+package krasa.mavenrun.gui;
+
+import java.awt.*;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.swing.*;
+
+import krasa.mavenrun.model.BuildProfile;
+import krasa.mavenrun.model.MojoTiming;
+
+import com.intellij.ui.JBColor;
+
+/**
+ * Timeline of a build: one row per module, mojos drawn as bars at their start time, width proportional to duration.
+ *
+ * @author Vojtech Krasa
+ */
+public class BuildProfileFlameGraph extends JComponent {
+	private static final int ROW_HEIGHT = 18;
+	private static final int LABEL_WIDTH = 160;
+	private static final Color[] COLORS = { new JBColor(new Color(0xF5A962), new Color(0x9C6B3C)),
+			new JBColor(new Color(0x8CC0E8), new Color(0x4A6C8A)), new JBColor(new Color(0xA8D8A0), new Color(0x557A50)),
+			new JBColor(new Color(0xE89AAE), new Color(0x8A4E5E)), new JBColor(new Color(0xD4C36A), new Color(0x7D7238)) };
+
+	private BuildProfile profile;
+	private final Map<String, Color> colors = new HashMap<String, Color>();
+
+	public void setProfile(BuildProfile profile) {
+		this.profile = profile;
+		int modules = profile == null ? 0 : profile.getModuleMillis().size();
+		setPreferredSize(new Dimension(600, Math.max(1, modules) * ROW_HEIGHT + 4));
+		revalidate();
+		repaint();
+	}
+
+	@Override
+	public String getToolTipText(MouseEvent event) {
+		MojoTiming mojo = findMojo(event.getPoint());
+		if (mojo == null) {
+			return null;
+		}
+		return mojo.getModule() + ": " + mojo.getMojo() + " (" + mojo.getExecution() + ") " + mojo.getDurationMillis()
+				+ " ms";
+	}
+
+	private MojoTiming findMojo(Point point) {
+		if (profile == null) {
+			return null;
+		}
+		List<String> modules = new ArrayList<String>(profile.getModuleMillis().keySet());
+		int row = point.y / ROW_HEIGHT;
+		if (row >= modules.size()) {
+			return null;
+		}
+		for (MojoTiming mojo : profile.getMojos()) {
+			if (mojo.getModule().equals(modules.get(row))) {
+				Rectangle bounds = getBounds(mojo, row);
+				if (bounds.contains(point)) {
+					return mojo;
+				}
+			}
+		}
+		return null;
+	}
+
+	private Rectangle getBounds(MojoTiming mojo, int row) {
+		double scale = (getWidth() - LABEL_WIDTH - 4) / (double) Math.max(1, profile.getTotalMillis());
+		int x = LABEL_WIDTH + (int) (mojo.getStartMillis() * scale);
+		int width = Math.max(1, (int) (mojo.getDurationMillis() * scale));
+		return new Rectangle(x, row * ROW_HEIGHT + 1, width, ROW_HEIGHT - 2);
+	}
+
+	@Override
+	protected void paintComponent(Graphics g) {
+		super.paintComponent(g);
+		if (profile == null) {
+			return;
+		}
+		FontMetrics metrics = g.getFontMetrics();
+		List<String> modules = new ArrayList<String>(profile.getModuleMillis().keySet());
+		for (int row = 0; row < modules.size(); row++) {
+			String module = modules.get(row);
+			g.setColor(getForeground());
+			g.drawString(module, 2, row * ROW_HEIGHT + metrics.getAscent() + 1);
+			for (MojoTiming mojo : profile.getMojos()) {
+				if (!mojo.getModule().equals(module)) {
+					continue;
+				}
+				Rectangle bounds = getBounds(mojo, row);
+				g.setColor(getColor(mojo.getMojo()));
+				g.fillRect(bounds.x, bounds.y, bounds.width, bounds.height);
+				if (metrics.stringWidth(mojo.getGoal()) < bounds.width - 4) {
+					g.setColor(JBColor.BLACK);
+					g.drawString(mojo.getGoal(), bounds.x + 2, bounds.y + metrics.getAscent());
+				}
+			}
+		}
+	}
+
+	private Color getColor(String mojo) {
+		Color color = colors.get(mojo);
+		if (color == null) {
+			color = COLORS[colors.size() % COLORS.length];
+			colors.put(mojo, color);
+		}
+		return color;
+	}
+}
@@ -0,0 +1,103 @@
+package krasa.mavenrun.gui;
+
+import java.awt.*;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.swing.*;
+import javax.swing.table.DefaultTableModel;
+
+import krasa.mavenrun.action.ReactorSimulator;
+
+import org.apache.commons.lang.StringUtils;
+import org.jetbrains.annotations.Nullable;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+/**
+ * Module times with the critical path, and simulated reactor time for -T 1..N.
+ *
+ * @author Vojtech Krasa
+ */
+public class ReactorAnalysisDialog extends DialogWrapper {
+	private final ReactorSimulator simulator;
+	/** simulated times by thread count, see {@link ReactorSimulator#simulateUpTo(int)} */
+	private final long[] times;
+
+	public ReactorAnalysisDialog(Project project, String rootName, ReactorSimulator simulator, long[] times) {
+		super(project);
+		this.simulator = simulator;
+		this.times = times;
+		setTitle("Reactor Critical Path - " + rootName);
+		setModal(false);
+		init();
+	}
+
+	@Nullable
+	@Override
+	protected JComponent createCenterPanel() {
+		List<String> criticalPath = simulator.getCriticalPath();
+		Set<String> critical = new HashSet<String>(criticalPath);
+		DefaultTableModel modules = new ReadOnlyModel(new String[] { "Module", "Time [ms]", "Critical Path" });
+		for (String module : simulator.getModules()) {
+			modules.addRow(new Object[] { module, simulator.getMillis(module), critical.contains(module) });
+		}
+
+		DefaultTableModel simulation = new ReadOnlyModel(new String[] { "Threads", "Simulated Time", "Speedup" });
+		long serial = times[1];
+		for (int threads = 1; threads < times.length; threads++) {
+			long time = times[threads];
+			simulation.addRow(new Object[] { threads, StringUtil.formatDuration(time),
+					time == 0 ? "-" : String.format("%.2fx", (double) serial / time) });
+		}
+
+		StringBuilder text = new StringBuilder("<html>Critical path ");
+		text.append(StringUtil.formatDuration(simulator.getCriticalPathMillis())).append(": ");
+		text.append(StringUtil.escapeXml(StringUtils.join(criticalPath, " -> ")));
+		text.append("<br>Recommended: -T ").append(ReactorSimulator.recommendThreads(times));
+		if (!simulator.getUnknownModules().isEmpty()) {
+			text.append("<br>No recorded time, counted as 0: ");
+			text.append(StringUtil.escapeXml(StringUtils.join(simulator.getUnknownModules(), ", ")));
+		}
+		text.append("</html>");
+
+		JBTable modulesTable = new JBTable(modules);
+		modulesTable.setAutoCreateRowSorter(true);
+		JSplitPane splitPane = new JSplitPane(JSplitPane.HORIZONTAL_SPLIT, new JBScrollPane(modulesTable),
+				new JBScrollPane(new JBTable(simulation)));
+		splitPane.setResizeWeight(0.6);
+
+		JPanel panel = new JPanel(new BorderLayout());
+		panel.add(new JLabel(text.toString()), BorderLayout.NORTH);
+		panel.add(splitPane, BorderLayout.CENTER);
+		panel.setPreferredSize(new Dimension(800, 500));
+		return panel;
+	}
+
+	@Override
+	protected Action[] createActions() {
+		return new Action[] { getOKAction() };
+	}
+
+	private static class ReadOnlyModel extends DefaultTableModel {
+		private ReadOnlyModel(String[] columns) {
+			super(columns, 0);
+		}
+
+		@Override
+		public boolean isCellEditable(int row, int column) {
+			return false;
+		}
+
+		@Override
+		public Class<?> getColumnClass(int columnIndex) {
+			return getRowCount() == 0 || getValueAt(0, columnIndex) == null ? Object.class : getValueAt(0,
+					columnIndex).getClass();
+		}
+	}
+}
@@ -6,15 +6,17 @@ import java.util.List;
 
 import org.jetbrains.idea.maven.model.MavenConstants;
 
-import com.rits.cloning.Cloner;
-
-public class ApplicationSettings extends DomainObject implements Cloneable {
+public class ApplicationSettings implements Cloneable {
 	private static final Collection<String> BASIC_PHASES = MavenConstants.BASIC_PHASES;
 	public static final int ACTUAL_VERSION = 1;
 
 	int version = 0;
 	private Goals goals = new Goals();
 	private Goals pluginAwareGoals = new Goals();
+	private boolean useMavenDaemon = false;
+	private String mavenDaemonExecutable = "mvnd";
+	private boolean useBuildCache = false;
+	private boolean debugForkedTests = false;
 
 	public int getVersion() {
 		return version;
@@ -40,6 +42,38 @@ public class ApplicationSettings extends DomainObject implements Cloneable {
 		this.goals = goals;
 	}
 
+	public boolean isUseMavenDaemon() {
+		return useMavenDaemon;
+	}
+
+	public void setUseMavenDaemon(final boolean useMavenDaemon) {
+		this.useMavenDaemon = useMavenDaemon;
+	}
+
+	public String getMavenDaemonExecutable() {
+		return mavenDaemonExecutable;
+	}
+
+	public void setMavenDaemonExecutable(final String mavenDaemonExecutable) {
+		this.mavenDaemonExecutable = mavenDaemonExecutable;
+	}
+
+	public boolean isUseBuildCache() {
+		return useBuildCache;
+	}
+
+	public void setUseBuildCache(final boolean useBuildCache) {
+		this.useBuildCache = useBuildCache;
+	}
+
+	public boolean isDebugForkedTests() {
+		return debugForkedTests;
+	}
+
+	public void setDebugForkedTests(final boolean debugForkedTests) {
+		this.debugForkedTests = debugForkedTests;
+	}
+
 	public static ApplicationSettings defaultApplicationSettings() {
 		ApplicationSettings applicationSettings = new ApplicationSettings();
 		Goals pluginAwareGoals = new Goals();
@@ -76,11 +110,66 @@ public class ApplicationSettings extends DomainObject implements Cloneable {
 		return strings;
 	}
 
+	/**
+	 * Goal lists are copied, {@link Goal}s themselves are shared.
+	 */
 	@Override
 	public ApplicationSettings clone() {
-		Cloner cloner = new Cloner();
-		cloner.nullInsteadOfClone();
-		return cloner.deepClone(this);
+		ApplicationSettings clone = new ApplicationSettings();
+		clone.version = version;
+		clone.goals = goals == null ? null : new Goals(goals);
+		clone.pluginAwareGoals = pluginAwareGoals == null ? null : new Goals(pluginAwareGoals);
+		clone.useMavenDaemon = useMavenDaemon;
+		clone.mavenDaemonExecutable = mavenDaemonExecutable;
+		clone.useBuildCache = useBuildCache;
+		clone.debugForkedTests = debugForkedTests;
+		return clone;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+
+		ApplicationSettings that = (ApplicationSettings) o;
+
+		if (version != that.version)
+			return false;
+		if (useMavenDaemon != that.useMavenDaemon)
+			return false;
+		if (useBuildCache != that.useBuildCache)
+			return false;
+		if (debugForkedTests != that.debugForkedTests)
+			return false;
+		if (mavenDaemonExecutable != null ? !mavenDaemonExecutable.equals(that.mavenDaemonExecutable)
+				: that.mavenDaemonExecutable != null)
+			return false;
+		if (goals != null ? !goals.equals(that.goals) : that.goals != null)
+			return false;
+		return pluginAwareGoals != null ? pluginAwareGoals.equals(that.pluginAwareGoals)
+				: that.pluginAwareGoals == null;
+	}
+
+	@Override
+	public int hashCode() {
+		int result = version;
+		result = 31 * result + (goals != null ? goals.hashCode() : 0);
+		result = 31 * result + (pluginAwareGoals != null ? pluginAwareGoals.hashCode() : 0);
+		result = 31 * result + (useMavenDaemon ? 1 : 0);
+		result = 31 * result + (mavenDaemonExecutable != null ? mavenDaemonExecutable.hashCode() : 0);
+		result = 31 * result + (useBuildCache ? 1 : 0);
+		result = 31 * result + (debugForkedTests ? 1 : 0);
+		return result;
+	}
+
+	@Override
+	public String toString() {
+		return "ApplicationSettings{version=" + version + ", goals=" + goals + ", pluginAwareGoals="
+				+ pluginAwareGoals + ", useMavenDaemon=" + useMavenDaemon + ", mavenDaemonExecutable='"
+				+ mavenDaemonExecutable + "', useBuildCache=" + useBuildCache + ", debugForkedTests="
+				+ debugForkedTests + "}";
 	}
 
 	public String[] getAllGoalsAsStringArray() {
@@ -0,0 +1,87 @@
+package krasa.mavenrun.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mojo timings of one Maven run, parsed from its console output.
+ */
+public class BuildProfile {
+	/** working directory + goals */
+	private String key;
+	private String goals;
+	private long timestamp;
+	private long totalMillis;
+	private boolean success;
+	private List<MojoTiming> mojos = new ArrayList<MojoTiming>();
+	/** module name -> time from the reactor summary */
+	private Map<String, Long> reactorSummary = new LinkedHashMap<String, Long>();
+
+	public String getKey() {
+		return key;
+	}
+
+	public void setKey(String key) {
+		this.key = key;
+	}
+
+	public String getGoals() {
+		return goals;
+	}
+
+	public void setGoals(String goals) {
+		this.goals = goals;
+	}
+
+	public long getTimestamp() {
+		return timestamp;
+	}
+
+	public void setTimestamp(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	public long getTotalMillis() {
+		return totalMillis;
+	}
+
+	public void setTotalMillis(long totalMillis) {
+		this.totalMillis = totalMillis;
+	}
+
+	public boolean isSuccess() {
+		return success;
+	}
+
+	public void setSuccess(boolean success) {
+		this.success = success;
+	}
+
+	public List<MojoTiming> getMojos() {
+		return mojos;
+	}
+
+	public void setMojos(List<MojoTiming> mojos) {
+		this.mojos = mojos;
+	}
+
+	public Map<String, Long> getReactorSummary() {
+		return reactorSummary;
+	}
+
+	public void setReactorSummary(Map<String, Long> reactorSummary) {
+		this.reactorSummary = reactorSummary;
+	}
+
+	/** module -> sum of its mojo times, in build order */
+	public Map<String, Long> getModuleMillis() {
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (MojoTiming mojo : mojos) {
+			Long millis = result.get(mojo.getModule());
+			result.put(mojo.getModule(), (millis == null ? 0 : millis) + mojo.getDurationMillis());
+		}
+		return result;
+	}
+}
@@ -1,6 +1,9 @@
 package krasa.mavenrun.model;
 
-public class Goal extends DomainObject {
+/**
+ * Not changed after creation, shared between settings copies.
+ */
+public class Goal {
 	private String commandLine;
 
 	public Goal() {
@@ -17,4 +20,24 @@ public class Goal extends DomainObject {
 	public void setCommandLine(String commandLine) {
 		this.commandLine = commandLine;
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		Goal goal = (Goal) o;
+		return commandLine != null ? commandLine.equals(goal.commandLine) : goal.commandLine == null;
+	}
+
+	@Override
+	public int hashCode() {
+		return commandLine != null ? commandLine.hashCode() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Goal{commandLine='" + commandLine + "'}";
+	}
 }
@@ -3,7 +3,7 @@ package krasa.mavenrun.model;
 import java.util.ArrayList;
 import java.util.List;
 
-public class Goals extends DomainObject {
+public class Goals {
 	private List<Goal> goals = new ArrayList<Goal>();
 
 	public Goals() {
@@ -13,6 +13,11 @@ public class Goals extends DomainObject {
 		this.goals = goals;
 	}
 
+	/** copies the list, goals are shared */
+	public Goals(Goals goals) {
+		this.goals = new ArrayList<Goal>(goals.goals);
+	}
+
 	public List<Goal> getGoals() {
 		return goals;
 	}
@@ -56,4 +61,24 @@ public class Goals extends DomainObject {
 	public boolean remove(Object goal) {
 		return goals.remove(goal);
 	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o)
+			return true;
+		if (o == null || getClass() != o.getClass())
+			return false;
+		Goals other = (Goals) o;
+		return goals != null ? goals.equals(other.goals) : other.goals == null;
+	}
+
+	@Override
+	public int hashCode() {
+		return goals != null ? goals.hashCode() : 0;
+	}
+
+	@Override
+	public String toString() {
+		return "Goals{goals=" + goals + "}";
+	}
 }
@@ -0,0 +1,92 @@
+package krasa.mavenrun.model;
+
+/**
+ * One mojo execution of a profiled build, e.g. {@code maven-compiler-plugin:3.1:compile (default-compile) @ core}.
+ */
+public class MojoTiming {
+	private String module;
+	private String plugin;
+	private String version;
+	private String goal;
+	private String execution;
+	/** relative to the build start */
+	private long startMillis;
+	private long durationMillis;
+
+	public MojoTiming() {
+	}
+
+	public MojoTiming(String module, String plugin, String version, String goal, String execution, long startMillis) {
+		this.module = module;
+		this.plugin = plugin;
+		this.version = version;
+		this.goal = goal;
+		this.execution = execution;
+		this.startMillis = startMillis;
+	}
+
+	/** plugin:goal (execution), without version so that runs can be compared across plugin upgrades */
+	public String getKey() {
+		return module + "/" + plugin + ":" + goal + " (" + execution + ")";
+	}
+
+	public String getMojo() {
+		return plugin + ":" + goal;
+	}
+
+	public String getModule() {
+		return module;
+	}
+
+	public void setModule(String module) {
+		this.module = module;
+	}
+
+	public String getPlugin() {
+		return plugin;
+	}
+
+	public void setPlugin(String plugin) {
+		this.plugin = plugin;
+	}
+
+	public String getVersion() {
+		return version;
+	}
+
+	public void setVersion(String version) {
+		this.version = version;
+	}
+
+	public String getGoal() {
+		return goal;
+	}
+
+	public void setGoal(String goal) {
+		this.goal = goal;
+	}
+
+	public String getExecution() {
+		return execution;
+	}
+
+	public void setExecution(String execution) {
+		this.execution = execution;
+	}
+
+	public long getStartMillis() {
+		return startMillis;
+	}
+
+	public void setStartMillis(long startMillis) {
+		this.startMillis = startMillis;
+	}
+
+	public long getDurationMillis() {
+		return durationMillis;
+	}
+
+	public void setDurationMillis(long durationMillis) {
+		this.durationMillis = durationMillis;
+	}
+}